@@ -0,0 +1,19 @@
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+public class Main {
+    /**
+     * Runs the benchmarks with the GC profiler attached so that allocation rate per operation
+     * ({@code gc.alloc.rate.norm}) is reported alongside throughput. Accepts the usual JMH
+     * command line options, e.g. a benchmark name regex or {@code -p position=start}.
+     */
+    public static void main(String[] args) throws Exception {
+        var options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,56 @@
+package benchmark;
+
+import chess.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of generating every move in a position through the public {@link ChessPiece#pieceMoves}
+ * and {@link ChessGame#validMoves} APIs. Each call covers all pieces of the side to move.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class MoveGenerationBenchmark {
+
+    @Param({"start", "position3", "position6"})
+    public String position;
+
+    private ChessGame game;
+    private final List<ChessPosition> ownSquares = new ArrayList<>();
+
+    @Setup
+    public void setUp() {
+        game = ChessGame.fromFen(Positions.named(position).fen());
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPiece piece = game.getBoard().getPiece(ChessPosition.of(row, col));
+                if (piece != null && piece.getTeamColor() == game.getTeamTurn()) {
+                    ownSquares.add(ChessPosition.of(row, col));
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void pieceMoves(Blackhole blackhole) {
+        ChessBoard board = game.getBoard();
+        for (ChessPosition square : ownSquares) {
+            blackhole.consume(board.getPiece(square).pieceMoves(board, square));
+        }
+    }
+
+    @Benchmark
+    public void validMoves(Blackhole blackhole) {
+        for (ChessPosition square : ownSquares) {
+            blackhole.consume(game.validMoves(square));
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package benchmark;
+
+import chess.ChessGame;
+import chess.search.PieceSquareEvaluator;
+import chess.search.ParallelSearch;
+import chess.search.SearchLimits;
+import chess.search.SearchResult;
+import chess.search.TranspositionTable;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to reach a fixed depth with Lazy SMP at different thread counts. Dividing the one-thread
+ * score by another row's gives the speedup at that thread count. The table is cleared before
+ * every search so that no run starts with another's results.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParallelSearchBenchmark {
+
+    @Param({"start", "kiwipete", "position4"})
+    public String position;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    @Param({"7"})
+    public int depth;
+
+    private ChessGame game;
+    private ParallelSearch search;
+
+    @Setup
+    public void setUp() {
+        game = ChessGame.fromFen(Positions.named(position).fen());
+        search = new ParallelSearch(threads, PieceSquareEvaluator::new, new TranspositionTable(64));
+    }
+
+    @Setup(Level.Invocation)
+    public void clearTable() {
+        search.getTranspositionTable().clear();
+    }
+
+    @TearDown
+    public void tearDown() {
+        search.close();
+    }
+
+    @Benchmark
+    public SearchResult timeToDepth() {
+        return search.search(game, SearchLimits.depth(depth));
+    }
+}
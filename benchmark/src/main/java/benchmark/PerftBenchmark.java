@@ -0,0 +1,54 @@
+package benchmark;
+
+import chess.ChessGame;
+import chess.Perft;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Perft throughput over the standard positions. The {@code nodes} counter is reported as
+ * nodes per second next to the per-call score.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PerftBenchmark {
+
+    @Param({"start", "position3", "position6"})
+    public String position;
+
+    @Param({"3"})
+    public int depth;
+
+    private Perft perft;
+    private int searchDepth;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Nodes {
+        public long nodes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            nodes = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        Perft.Position standard = Positions.named(position);
+        perft = new Perft(ChessGame.fromFen(standard.fen()));
+        searchDepth = Math.min(depth, standard.maxDepth());
+    }
+
+    @Benchmark
+    public long perft(Nodes counter) {
+        long nodes = perft.count(searchDepth);
+        counter.nodes += nodes;
+        return nodes;
+    }
+}
@@ -0,0 +1,15 @@
+package benchmark;
+
+import chess.Perft;
+
+final class Positions {
+    private Positions() {
+    }
+
+    static Perft.Position named(String name) {
+        return Perft.STANDARD_POSITIONS.stream()
+                .filter(position -> position.name().equals(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown position " + name));
+    }
+}
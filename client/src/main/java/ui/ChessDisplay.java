@@ -106,7 +106,7 @@ public class ChessDisplay {
 
     private String determineSquareColor(int row, int column,
                                         ChessPosition selectedPos, HashSet<ChessPosition> validMoveSquares) {
-        ChessPosition square = new ChessPosition(row, column);
+        ChessPosition square = ChessPosition.of(row, column);
         if (square.equals(selectedPos)) {
             return EscapeSequences.SET_BG_COLOR_BLUE;
         }
@@ -118,7 +118,7 @@ public class ChessDisplay {
     }
 
     private String renderPiece(int row, int column) {
-        ChessPiece piece = game.getBoard().getPiece(new ChessPosition(row, column));
+        ChessPiece piece = game.getBoard().getPiece(ChessPosition.of(row, column));
         if (piece == null){
             return EMPTY_SQUARE;
         }
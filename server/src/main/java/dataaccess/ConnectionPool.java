@@ -0,0 +1,504 @@
+package dataaccess;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded pool of database connections, so that each DAO call borrows an open connection
+ * instead of paying for a TCP and authentication handshake.
+ * <p>
+ * Callers use connections exactly as before, closing them when done, typically with
+ * try-with-resources; closing a borrowed connection hands it back to the pool. At most
+ * {@link PoolSettings#maxSize()} connections are lent out at once, and a caller that finds them
+ * all in use waits up to {@link PoolSettings#waitTimeoutMillis()} before failing.
+ * <p>
+ * Idle connections are reused most recently returned first, so that the rest age out. Any that
+ * have been idle longer than the idle timeout, or open longer than the maximum lifetime, are
+ * closed as the pool is used rather than by a background thread. A connection that has been
+ * idle for a while is checked with {@link Connection#isValid} before it is lent out, and one
+ * returned in the middle of a transaction is rolled back.
+ * <p>
+ * Each connection also keeps the statements prepared on it, up to
+ * {@link PoolSettings#statementCacheSize()}, least recently used dropped first. Preparing the
+ * same SQL again on a later loan hands back the open statement, and closing it only clears its
+ * parameters, so the DAOs' fixed queries are parsed and planned once per connection rather
+ * than once per call. Statements are only shared between loans, never within one: preparing SQL
+ * whose cached statement is still open gives a fresh, uncached statement. A statement still
+ * open when its connection comes back is closed and dropped from the cache, so that the
+ * borrower who leaked it cannot share it with the next one.
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    /**
+     * Opens a new connection to the database, with the schema already selected
+     */
+    @FunctionalInterface
+    public interface ConnectionFactory {
+        Connection open() throws SQLException;
+    }
+
+    private final ConnectionFactory factory;
+    private final PoolSettings settings;
+    private final Semaphore permits;
+    // Most recently returned first; guarded by itself
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+    private volatile boolean closed;
+
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final LongAdder borrows = new LongAdder();
+    private final LongAdder created = new LongAdder();
+    private final LongAdder retired = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder statementHits = new LongAdder();
+    private final LongAdder statementMisses = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    public ConnectionPool(ConnectionFactory factory, PoolSettings settings) {
+        this.factory = factory;
+        this.settings = settings;
+        this.permits = new Semaphore(settings.maxSize(), true);
+    }
+
+    /**
+     * Borrows a connection; close it to give it back
+     *
+     * @return an open connection
+     * @throws DataAccessException if none frees up within the wait timeout, or a new one cannot
+     *                             be opened
+     */
+    public Connection getConnection() throws DataAccessException {
+        if (closed) {
+            throw new DataAccessException(500, "Error: connection pool is closed");
+        }
+        long start = System.nanoTime();
+        boolean acquired;
+        waiting.incrementAndGet();
+        try {
+            acquired = permits.tryAcquire(settings.waitTimeoutMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataAccessException(500, "Error: interrupted waiting for a database connection");
+        } finally {
+            waiting.decrementAndGet();
+        }
+        long waited = System.nanoTime() - start;
+        totalWaitNanos.add(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+        if (!acquired) {
+            timeouts.increment();
+            throw new DataAccessException(500, String.format(
+                    "Error: no database connection free after %d ms", settings.waitTimeoutMillis()));
+        }
+
+        try {
+            PooledConnection pooled = takeIdle();
+            if (pooled == null) {
+                pooled = new PooledConnection(factory.open());
+                created.increment();
+            }
+            active.incrementAndGet();
+            borrows.increment();
+            return pooled.lend();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw new DataAccessException(500, String.format("Unable to connect to database: %s", e.getMessage()));
+        }
+    }
+
+    /**
+     * @return the most recently returned idle connection that is still fit to use, or null
+     */
+    private PooledConnection takeIdle() {
+        while (true) {
+            PooledConnection pooled;
+            synchronized (idle) {
+                pooled = idle.pollFirst();
+            }
+            if (pooled == null) {
+                return null;
+            }
+            long now = System.nanoTime();
+            if (pooled.isExpired(now) || (pooled.idleNanos(now) > millisToNanos(settings.validateAfterMillis())
+                    && !pooled.isValid())) {
+                retire(pooled);
+                continue;
+            }
+            return pooled;
+        }
+    }
+
+    private void giveBack(PooledConnection pooled) {
+        active.decrementAndGet();
+        try {
+            if (closed || pooled.isTooOld(System.nanoTime()) || !pooled.reset()) {
+                retire(pooled);
+            } else {
+                pooled.lastReturned = System.nanoTime();
+                synchronized (idle) {
+                    idle.addFirst(pooled);
+                }
+            }
+            evictIdle();
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Closes idle connections from the least recently used end until one is still fit to keep
+     */
+    private void evictIdle() {
+        long now = System.nanoTime();
+        while (true) {
+            PooledConnection oldest;
+            synchronized (idle) {
+                oldest = idle.peekLast();
+                if (oldest == null || !oldest.isExpired(now)) {
+                    return;
+                }
+                idle.pollLast();
+            }
+            retire(oldest);
+        }
+    }
+
+    private void retire(PooledConnection pooled) {
+        retired.increment();
+        try {
+            pooled.raw.close();
+        } catch (SQLException ignored) {
+            // Already broken; nothing more to release
+        }
+    }
+
+    private static void closeQuietly(Statement statement) {
+        try {
+            statement.close();
+        } catch (SQLException ignored) {
+            // Closing it was only to free server resources
+        }
+    }
+
+    private static long millisToNanos(long millis) {
+        return TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    public PoolSettings getSettings() {
+        return settings;
+    }
+
+    public PoolMetrics getMetrics() {
+        int idleCount;
+        synchronized (idle) {
+            idleCount = idle.size();
+        }
+        return new PoolMetrics(active.get(), idleCount, waiting.get(), borrows.sum(), created.sum(), retired.sum(),
+                timeouts.sum(), totalWaitNanos.sum(), maxWaitNanos.get(), statementHits.sum(), statementMisses.sum());
+    }
+
+    /**
+     * Closes the idle connections; connections still lent out are closed as they come back
+     */
+    @Override
+    public void close() {
+        closed = true;
+        while (true) {
+            PooledConnection pooled;
+            synchronized (idle) {
+                pooled = idle.pollFirst();
+            }
+            if (pooled == null) {
+                return;
+            }
+            retire(pooled);
+        }
+    }
+
+    /**
+     * A real connection and its ages; each loan hands out a fresh proxy, so that a caller that
+     * keeps using a connection after closing it cannot reach the next borrower's
+     */
+    private final class PooledConnection {
+        private final Connection raw;
+        private final long opened = System.nanoTime();
+        private long lastReturned = opened;
+        // In access order, for dropping the least recently used
+        private final LinkedHashMap<StatementKey, CachedStatement> statements =
+                new LinkedHashMap<>(16, 0.75f, true);
+
+        private PooledConnection(Connection raw) {
+            this.raw = raw;
+        }
+
+        private boolean isTooOld(long now) {
+            return now - opened > millisToNanos(settings.maxLifetimeMillis());
+        }
+
+        /**
+         * @return True if an idle connection should be closed rather than lent out again
+         */
+        private boolean isExpired(long now) {
+            return isTooOld(now) || idleNanos(now) > millisToNanos(settings.idleTimeoutMillis());
+        }
+
+        private long idleNanos(long now) {
+            return now - lastReturned;
+        }
+
+        private boolean isValid() {
+            try {
+                return raw.isValid(settings.validationTimeoutSeconds());
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        /**
+         * Undoes anything a borrower left behind
+         *
+         * @return False if the connection is broken and should be closed
+         */
+        private boolean reset() {
+            try {
+                if (raw.isClosed()) {
+                    return false;
+                }
+                if (!raw.getAutoCommit()) {
+                    raw.rollback();
+                    raw.setAutoCommit(true);
+                }
+                Iterator<CachedStatement> cachedStatements = statements.values().iterator();
+                while (cachedStatements.hasNext()) {
+                    CachedStatement cached = cachedStatements.next();
+                    if (cached.inUse) {
+                        // The borrower forgot to close it and may still hold it, so nobody else gets it
+                        cachedStatements.remove();
+                        cached.retire();
+                    }
+                }
+                return true;
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        /**
+         * @param loan the borrower's connection, which the statement reports as its own
+         */
+        private PreparedStatement prepare(String sql, int autoGeneratedKeys, Connection loan) throws SQLException {
+            StatementKey key = new StatementKey(sql, autoGeneratedKeys);
+            CachedStatement cached = statements.get(key);
+            if (cached != null && !cached.inUse) {
+                statementHits.increment();
+                return cached.lend(loan);
+            }
+            statementMisses.increment();
+            PreparedStatement statement = raw.prepareStatement(sql, autoGeneratedKeys);
+            if (cached != null) {
+                // The cached one is busy; this one is closed for real when the borrower is done
+                return StatementLoan.lend(statement, null, loan);
+            }
+            cached = new CachedStatement(this, key, statement);
+            statements.put(key, cached);
+            evictStatements();
+            return cached.lend(loan);
+        }
+
+        private void evictStatements() {
+            Iterator<CachedStatement> eldest = statements.values().iterator();
+            while (statements.size() > settings.statementCacheSize() && eldest.hasNext()) {
+                CachedStatement cached = eldest.next();
+                if (!cached.inUse) {
+                    eldest.remove();
+                    cached.retire();
+                }
+            }
+        }
+
+        private Connection lend() {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, new Loan(this));
+        }
+    }
+
+    private final class Loan implements InvocationHandler {
+        private final PooledConnection pooled;
+        private boolean returned;
+
+        private Loan(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (!returned) {
+                        returned = true;
+                        giveBack(pooled);
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    return returned || pooled.raw.isClosed();
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "Pooled " + pooled.raw;
+                }
+                default -> {
+                }
+            }
+            if (returned) {
+                throw new SQLException("Connection has been returned to the pool");
+            }
+            if (method.getName().equals("prepareStatement") && settings.statementCacheSize() > 0
+                    && (args.length == 1 || (args.length == 2 && args[1] instanceof Integer))) {
+                return pooled.prepare((String) args[0],
+                        args.length == 1 ? Statement.NO_GENERATED_KEYS : (Integer) args[1], (Connection) proxy);
+            }
+            try {
+                return method.invoke(pooled.raw, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    private record StatementKey(String sql, int autoGeneratedKeys) {
+    }
+
+    /**
+     * A prepared statement kept open on its connection between uses
+     */
+    private static final class CachedStatement {
+        private final PooledConnection owner;
+        private final StatementKey key;
+        private final PreparedStatement raw;
+        private boolean inUse;
+        private boolean retired;
+
+        private CachedStatement(PooledConnection owner, StatementKey key, PreparedStatement raw) {
+            this.owner = owner;
+            this.key = key;
+            this.raw = raw;
+        }
+
+        private PreparedStatement lend(Connection loan) {
+            inUse = true;
+            return StatementLoan.lend(raw, this, loan);
+        }
+
+        private void giveBack() {
+            inUse = false;
+            try {
+                raw.clearParameters();
+            } catch (SQLException e) {
+                owner.statements.remove(key, this);
+                retire();
+            }
+        }
+
+        /**
+         * Closes the statement for good; loans still holding it fail from then on
+         */
+        private void retire() {
+            retired = true;
+            closeQuietly(raw);
+        }
+    }
+
+    /**
+     * One use of a prepared statement. Closing a cached one clears the parameters and makes the
+     * statement available again; closing any other closes it. Either way the statement names the
+     * borrower's pooled connection, never the physical one, as its connection.
+     */
+    private static final class StatementLoan implements InvocationHandler {
+        private final PreparedStatement raw;
+        private final CachedStatement cached;
+        private final Connection loan;
+        private boolean returned;
+
+        private StatementLoan(PreparedStatement raw, CachedStatement cached, Connection loan) {
+            this.raw = raw;
+            this.cached = cached;
+            this.loan = loan;
+        }
+
+        /**
+         * @param cached the cache entry holding the statement, or null if it is not cached
+         */
+        private static PreparedStatement lend(PreparedStatement raw, CachedStatement cached, Connection loan) {
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, new StatementLoan(raw, cached, loan));
+        }
+
+        private boolean isRetired() {
+            return cached != null && cached.retired;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (!returned) {
+                        returned = true;
+                        if (cached == null) {
+                            raw.close();
+                        } else if (!cached.retired) {
+                            cached.giveBack();
+                        }
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    return returned || isRetired() || raw.isClosed();
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return (cached == null ? "Loaned " : "Cached ") + raw;
+                }
+                default -> {
+                }
+            }
+            if (returned || isRetired()) {
+                throw new SQLException("Statement is closed");
+            }
+            if (method.getName().equals("getConnection")) {
+                return loan;
+            }
+            try {
+                return method.invoke(raw, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -8,6 +8,7 @@ public class DatabaseManager {
     private static final String USER;
     private static final String PASSWORD;
     private static final String CONNECTION_URL;
+    private static final ConnectionPool POOL;
 
     static {
         try {
@@ -23,7 +24,9 @@ public class DatabaseManager {
 
                 var host = props.getProperty("db.host");
                 var port = Integer.parseInt(props.getProperty("db.port"));
-                CONNECTION_URL = String.format("jdbc:mysql://%s:%d", host, port);
+                // Server-side statements, so that the pool's cached statements skip parsing and planning
+                CONNECTION_URL = String.format("jdbc:mysql://%s:%d?useServerPrepStmts=true", host, port);
+                POOL = new ConnectionPool(DatabaseManager::openConnection, PoolSettings.from(props));
             }
         } catch (Exception ex) {
             throw new RuntimeException("unable to process db.properties. " + ex.getMessage());
@@ -33,8 +36,8 @@ public class DatabaseManager {
     public static void createDatabase() throws DataAccessException {
         try {
             var statement = "CREATE DATABASE IF NOT EXISTS " + DATABASE_NAME;
-            var conn = DriverManager.getConnection(CONNECTION_URL, USER, PASSWORD);
-            try (var preparedStatement = conn.prepareStatement(statement)) {
+            try (var conn = DriverManager.getConnection(CONNECTION_URL, USER, PASSWORD);
+                 var preparedStatement = conn.prepareStatement(statement)) {
                 preparedStatement.executeUpdate();
             }
         } catch (SQLException e) {
@@ -42,13 +45,21 @@ public class DatabaseManager {
         }
     }
 
+    /**
+     * Borrows a connection from the pool; closing it gives it back. Pool sizing and timeouts
+     * come from the {@code db.pool.*} keys in db.properties; see {@link PoolSettings}.
+     */
     public static Connection getConnection() throws DataAccessException {
-        try {
-            var conn = DriverManager.getConnection(CONNECTION_URL, USER, PASSWORD);
-            conn.setCatalog(DATABASE_NAME);
-            return conn;
-        } catch (SQLException e) {
-            throw new DataAccessException(400, e.getMessage());
-        }
+        return POOL.getConnection();
+    }
+
+    public static PoolMetrics getPoolMetrics() {
+        return POOL.getMetrics();
+    }
+
+    private static Connection openConnection() throws SQLException {
+        var conn = DriverManager.getConnection(CONNECTION_URL, USER, PASSWORD);
+        conn.setCatalog(DATABASE_NAME);
+        return conn;
     }
 }
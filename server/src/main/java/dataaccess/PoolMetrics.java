@@ -0,0 +1,33 @@
+package dataaccess;
+
+/**
+ * A snapshot of a {@link ConnectionPool}'s counters
+ *
+ * @param active          connections lent out right now
+ * @param idle            open connections waiting to be lent
+ * @param waiting         callers waiting for a connection right now
+ * @param borrows         connections lent out since the pool started
+ * @param created         connections opened since the pool started
+ * @param closed          connections closed for being idle, too old or broken
+ * @param timeouts        callers that gave up waiting
+ * @param totalWaitNanos  time callers spent waiting for a connection, summed
+ * @param maxWaitNanos    the longest any caller waited
+ * @param statementHits   statements prepared by reusing one a connection already had open
+ * @param statementMisses statements that had to be prepared afresh
+ */
+public record PoolMetrics(int active, int idle, int waiting, long borrows, long created, long closed,
+                          long timeouts, long totalWaitNanos, long maxWaitNanos, long statementHits,
+                          long statementMisses) {
+
+    public double averageWaitMillis() {
+        return borrows == 0 ? 0 : totalWaitNanos / 1e6 / borrows;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d active, %d idle, %d waiting; %,d borrows, %,d created, %,d closed, %,d timeouts; "
+                        + "wait %.2f ms average, %.2f ms max; %,d statements reused, %,d prepared",
+                active, idle, waiting, borrows, created, closed, timeouts, averageWaitMillis(), maxWaitNanos / 1e6,
+                statementHits, statementMisses);
+    }
+}
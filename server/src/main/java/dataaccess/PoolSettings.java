@@ -0,0 +1,45 @@
+package dataaccess;
+
+import java.util.Properties;
+
+/**
+ * Sizing and timeouts for a {@link ConnectionPool}, read from {@code db.properties}
+ *
+ * @param maxSize                  most connections lent out at once
+ * @param waitTimeoutMillis        how long a caller waits for a connection when all are lent out
+ * @param idleTimeoutMillis        how long a connection may sit unused before it is closed
+ * @param maxLifetimeMillis        how long a connection is used at all before it is replaced, so
+ *                                 that the server's own timeouts never close one under us
+ * @param validateAfterMillis      how long a connection may sit unused before it is checked with
+ *                                 {@link java.sql.Connection#isValid} on its way out
+ * @param validationTimeoutSeconds how long that check may take
+ * @param statementCacheSize       prepared statements kept open per connection for reuse, or 0
+ *                                 to prepare every statement afresh
+ */
+public record PoolSettings(int maxSize, long waitTimeoutMillis, long idleTimeoutMillis, long maxLifetimeMillis,
+                           long validateAfterMillis, int validationTimeoutSeconds, int statementCacheSize) {
+    public static final PoolSettings DEFAULT = new PoolSettings(10, 5_000, 600_000, 1_800_000, 1_000, 2, 32);
+
+    public PoolSettings {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Pool needs at least one connection");
+        }
+    }
+
+    /**
+     * Reads the {@code db.pool.*} keys, falling back to {@link #DEFAULT} for any that are missing
+     */
+    public static PoolSettings from(Properties props) {
+        return new PoolSettings(
+                Integer.parseInt(props.getProperty("db.pool.maxSize", String.valueOf(DEFAULT.maxSize))),
+                Long.parseLong(props.getProperty("db.pool.waitTimeoutMillis", String.valueOf(DEFAULT.waitTimeoutMillis))),
+                Long.parseLong(props.getProperty("db.pool.idleTimeoutMillis", String.valueOf(DEFAULT.idleTimeoutMillis))),
+                Long.parseLong(props.getProperty("db.pool.maxLifetimeMillis", String.valueOf(DEFAULT.maxLifetimeMillis))),
+                Long.parseLong(props.getProperty("db.pool.validateAfterMillis",
+                        String.valueOf(DEFAULT.validateAfterMillis))),
+                Integer.parseInt(props.getProperty("db.pool.validationTimeoutSeconds",
+                        String.valueOf(DEFAULT.validationTimeoutSeconds))),
+                Integer.parseInt(props.getProperty("db.pool.statementCacheSize",
+                        String.valueOf(DEFAULT.statementCacheSize))));
+    }
+}
@@ -1,5 +1,6 @@
 package dataaccess.idao;
 
+import chess.ChessMove;
 import dataaccess.DataAccessException;
 import model.GameData;
 import model.GameRecord;
@@ -15,6 +16,10 @@ public interface GameDAO {
 
     void clearGameData() throws DataAccessException;
 
+    /**
+     * @return the game, or null if there is none; the caller may change it freely, since changes
+     * are only stored through {@link #updateGame} or {@link #addMove}
+     */
     GameData getGame(Integer gameID) throws DataAccessException;
 
     Integer addGame(GameData gameData) throws DataAccessException;
@@ -23,6 +28,15 @@ public interface GameDAO {
 
     void updateGame(GameData gameData) throws DataAccessException;
 
+    /**
+     * Records a move that has already been played on the game's chess game and counted in its
+     * {@link GameData#getMoveCount()}, along with the game's {@link GameData#getResult()} if the
+     * move ended it
+     *
+     * @throws DataAccessException with status 409 if another move was recorded at that ply first
+     */
+    void addMove(GameData gameData, ChessMove move) throws DataAccessException;
+
     void deleteGame(Integer gameID) throws DataAccessException;
 
     void addPlayer(Integer gameID, String username, PlayerColor requestedPlayerColor) throws DataAccessException;
@@ -1,5 +1,6 @@
 package dataaccess.memorydao;
 
+import chess.ChessMove;
 import dataaccess.DataAccessException;
 import model.GameData;
 import model.GameRecord;
@@ -7,26 +8,34 @@ import utils.PlayerColor;
 
 import java.util.*;
 
+/**
+ * Keeps games in maps. Games are copied on the way in and out, as a database would, so that a
+ * caller changing a game it read cannot change the stored one behind the version check.
+ */
 public class MemoryGameDAO implements dataaccess.idao.GameDAO {
     private Map<Integer, GameData> gameDB = new HashMap<>();
-    private Map<Integer, ArrayList<String>> observerDB = new HashMap<>();
+    private Map<Integer, Set<String>> observerDB = new HashMap<>();
+    private Map<Integer, List<ChessMove>> moveDB = new HashMap<>();
 
     @Override
     public void addObserver(Integer gameID, String username) throws DataAccessException {
-        ArrayList<String> observers = observerDB.get(gameID);
-        observers.add(username);
-        observerDB.put(gameID, observers);
+        if (!gameDB.containsKey(gameID)) {
+            throw new DataAccessException(400, "Error: game not found");
+        }
+        observerDB.computeIfAbsent(gameID, id -> new TreeSet<>()).add(username);
     }
 
     @Override
     public List<String> getObservers(Integer gameID) throws DataAccessException {
-        return observerDB.get(gameID);
+        return new ArrayList<>(observerDB.getOrDefault(gameID, Set.of()));
     }
 
     @Override
     public void clearGameData() throws DataAccessException {
         try {
             gameDB.clear();
+            moveDB.clear();
+            observerDB.clear();
         } catch (Exception e) {
             throw new DataAccessException(500, "Error: internal server error");
         }
@@ -35,7 +44,8 @@ public class MemoryGameDAO implements dataaccess.idao.GameDAO {
     @Override
     public GameData getGame(Integer gameID) throws DataAccessException {
         try {
-            return gameDB.get(gameID);
+            GameData stored = gameDB.get(gameID);
+            return stored == null ? null : new GameData(stored);
         } catch (Exception e) {
             throw new DataAccessException(400, "Error: Game does not exist");
         }
@@ -44,7 +54,7 @@ public class MemoryGameDAO implements dataaccess.idao.GameDAO {
     @Override
     public Integer addGame(GameData gameData) throws DataAccessException {
         try {
-            gameDB.put(gameData.getGameID(), gameData);
+            gameDB.put(gameData.getGameID(), new GameData(gameData));
             return gameData.getGameID();
         } catch (Exception e) {
             throw new DataAccessException(500, "Error: internal server error");
@@ -57,7 +67,7 @@ public class MemoryGameDAO implements dataaccess.idao.GameDAO {
         try{
             for (GameData game : gameDB.values()) {
                 Integer gameID = game.getGameID();
-                List<String> observers = observerDB.get(gameID);
+                List<String> observers = getObservers(gameID);
                 GameRecord gameRecord = new GameRecord(game.getGameID(), game.getWhiteUsername(), game.getBlackUsername(),
                         game.getGameName(), observers);
                 gameRecords.add(gameRecord);
@@ -70,13 +80,36 @@ public class MemoryGameDAO implements dataaccess.idao.GameDAO {
 
     @Override
     public void updateGame(GameData gameData) throws DataAccessException {
-        addGame(gameData);
+        GameData stored = gameDB.get(gameData.getGameID());
+        if (stored != null && stored.getVersion() != gameData.getVersion()) {
+            throw new DataAccessException(409, "Error: the game was changed by another request");
+        }
+        gameData.setVersion(gameData.getVersion() + 1);
+        gameDB.put(gameData.getGameID(), new GameData(gameData));
+    }
+
+    @Override
+    public void addMove(GameData gameData, ChessMove move) throws DataAccessException {
+        GameData stored = gameDB.get(gameData.getGameID());
+        if (stored == null) {
+            throw new DataAccessException(400, "Error: game not found");
+        }
+        // Checked before anything is stored, so a conflicting move leaves no trace
+        List<ChessMove> moves = moveDB.getOrDefault(gameData.getGameID(), List.of());
+        if (stored.getVersion() != gameData.getVersion() || moves.size() != gameData.getMoveCount() - 1) {
+            throw new DataAccessException(409, "Error: another move was made first");
+        }
+        moveDB.computeIfAbsent(gameData.getGameID(), id -> new ArrayList<>()).add(move);
+        gameData.setVersion(gameData.getVersion() + 1);
+        gameDB.put(gameData.getGameID(), new GameData(gameData));
     }
 
     @Override
     public void deleteGame(Integer gameID) throws DataAccessException {
         try{
             gameDB.remove(gameID);
+            moveDB.remove(gameID);
+            observerDB.remove(gameID);
         } catch (Exception e) {
             throw new DataAccessException(500, "Error: game with " + gameID.toString() + " does not exist");
         }
@@ -115,6 +148,7 @@ public class MemoryGameDAO implements dataaccess.idao.GameDAO {
             } else {
                 currentGame.setWhiteUsername(username);
             }
+            currentGame.setVersion(currentGame.getVersion() + 1);
         } else {
             throw new DataAccessException(400, "Error: bad request");
         }
@@ -8,7 +8,6 @@ import model.AuthData;
 import java.util.UUID;
 
 import static java.sql.Statement.RETURN_GENERATED_KEYS;
-import static java.sql.Types.NULL;
 
 public class SQLAuthDAO extends SQLBaseClass implements AuthDAO {
 
@@ -101,7 +100,7 @@ public class SQLAuthDAO extends SQLBaseClass implements AuthDAO {
     private void executeUpdate(String statement, Object... params) throws DataAccessException {
         try (var conn = DatabaseManager.getConnection()) {
             try (var ps = conn.prepareStatement(statement, RETURN_GENERATED_KEYS)) {
-                SQLGameDAO.executeUpdate(ps, params);
+                executeUpdate(ps, params);
             }
         } catch (Exception e) {
             throw new DataAccessException(400, String.format("Unable to update database: %s, %s", statement, e.getMessage()));
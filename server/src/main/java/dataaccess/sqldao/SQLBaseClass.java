@@ -1,11 +1,22 @@
 package dataaccess.sqldao;
 
+import com.google.gson.Gson;
 import dataaccess.DataAccessException;
 import dataaccess.DatabaseManager;
 
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 
+import static java.sql.Types.NULL;
+
+/**
+ * Shared plumbing for the SQL DAOs. Statements prepared on a connection from
+ * {@link DatabaseManager#getConnection()} are cached by the connection pool, so the DAOs can
+ * prepare their fixed SQL on every call without it being parsed again. Gson instances are
+ * thread safe, so one serves every DAO.
+ */
 public abstract class SQLBaseClass {
+    protected static final Gson GSON = new Gson();
 
     protected void configureDatabase(String[] createStatements) throws DataAccessException {
         DatabaseManager.createDatabase();
@@ -19,4 +30,37 @@ public abstract class SQLBaseClass {
             throw new DataAccessException(500, String.format("Unable to configure database: %s", e.getMessage()));
         }
     }
+
+    /**
+     * Adds a column to a table made before the column existed, which {@code CREATE TABLE IF NOT
+     * EXISTS} would otherwise leave as it was
+     */
+    protected void addColumnIfMissing(String table, String column, String definition) throws DataAccessException {
+        try (var conn = DatabaseManager.getConnection()) {
+            try (var columns = conn.getMetaData().getColumns(conn.getCatalog(), null, table, column)) {
+                if (columns.next()) {
+                    return;
+                }
+            }
+            try (var statement = conn.createStatement()) {
+                statement.executeUpdate(String.format("ALTER TABLE %s ADD COLUMN %s %s", table, column, definition));
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException(500, String.format("Unable to configure database: %s", e.getMessage()));
+        }
+    }
+
+    static int executeUpdate(PreparedStatement ps, Object[] params) throws SQLException {
+        for (var i = 0; i < params.length; i++) {
+            var param = params[i];
+            switch (param) {
+                case String p -> ps.setString(i + 1, p);
+                case Integer p -> ps.setInt(i + 1, p);
+                case null -> ps.setNull(i + 1, NULL);
+                default -> {
+                }
+            }
+        }
+        return ps.executeUpdate();
+    }
 }
@@ -1,13 +1,16 @@
 package dataaccess.sqldao;
 
 import chess.ChessGame;
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
+import chess.ChessMove;
+import chess.GameState;
+import chess.Move;
+import chess.MoveUndo;
 import dataaccess.DataAccessException;
 import dataaccess.DatabaseManager;
 import dataaccess.idao.GameDAO;
 import model.GameData;
 import model.GameRecord;
+import model.GameResult;
 import utils.PlayerColor;
 
 import java.sql.*;
@@ -16,9 +19,28 @@ import java.util.Collection;
 import java.util.List;
 
 import static java.sql.Statement.RETURN_GENERATED_KEYS;
-import static java.sql.Types.NULL;
 
+/**
+ * Games are stored as a snapshot of the position in {@code gameTable} plus the moves played since
+ * it in {@code moves}. Playing a move only inserts one small row. The snapshot is brought up to
+ * date on the first capture or pawn move at least {@link #SNAPSHOT_INTERVAL} plies after the last
+ * one, so it is always taken where the halfmove clock is zero: no position before it can recur,
+ * and replaying the moves since it rebuilds the whole history that repetitions are checked
+ * against. The fifty-move rule ends a game before it can go longer than that without a capture
+ * or pawn move, so loading a game replays at most about 120 moves. The moves table also keeps
+ * the whole game's history.
+ * <p>
+ * Every write to a game bumps its {@code version} and only goes through if the version is still
+ * the one that was read, so concurrent requests cannot overwrite each other. Seat claims retry
+ * on a conflict; moves and whole-game updates report it with status 409.
+ * <p>
+ * Observers are rows of {@code game_observers}, one per game and username, so that joining as an
+ * observer is a single insert. The {@code observers} JSON column of older databases is moved
+ * into that table on startup.
+ */
 public class SQLGameDAO extends SQLBaseClass implements GameDAO {
+    public static final int SNAPSHOT_INTERVAL = 20;
+    private static final int CLAIM_ATTEMPTS = 5;
 
     public SQLGameDAO() throws DataAccessException {
         String[] createStatements = {
@@ -30,30 +52,60 @@ public class SQLGameDAO extends SQLBaseClass implements GameDAO {
               `gameName` varchar(256) NOT NULL,
               `game` TEXT NOT NULL,
               `observers` TEXT,
+              `snapshotPly` int NOT NULL DEFAULT 0,
+              `version` int NOT NULL DEFAULT 0,
+              `result` varchar(16),
               PRIMARY KEY (`gameID`)
             ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci
-            """
+            """,
+                """
+            CREATE TABLE IF NOT EXISTS moves (
+              `gameID` int NOT NULL,
+              `ply` int NOT NULL,
+              `move` smallint NOT NULL,
+              `playedAt` timestamp(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+              PRIMARY KEY (`gameID`, `ply`)
+            ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci
+            """,
+                """
+            CREATE TABLE IF NOT EXISTS game_observers (
+              `gameID` int NOT NULL,
+              `username` varchar(256) NOT NULL,
+              PRIMARY KEY (`gameID`, `username`)
+            ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci
+            """,
+                """
+            INSERT IGNORE INTO game_observers (gameID, username)
+            SELECT g.gameID, o.username FROM gameTable g,
+              JSON_TABLE(g.observers, '$[*]' COLUMNS (`username` varchar(256) PATH '$')) o
+            WHERE g.observers IS NOT NULL
+            """,
+                "UPDATE gameTable SET observers = NULL WHERE observers IS NOT NULL"
         };
         configureDatabase(createStatements);
+        addColumnIfMissing("gameTable", "snapshotPly", "int NOT NULL DEFAULT 0");
+        addColumnIfMissing("gameTable", "version", "int NOT NULL DEFAULT 0");
+        addColumnIfMissing("gameTable", "result", "varchar(16)");
     }
 
     @Override
     public Integer addGame(GameData gameData) throws DataAccessException {
-        var statement = "INSERT INTO gameTable (whiteUsername, blackUsername, gameName, game, observers) VALUES (?, ?, ?, ?, ?)";
-        var json = new Gson().toJson(gameData.getChessGame());
-        var observersJson = new Gson().toJson(new ArrayList<>()); // Default value for observers
-        return executeInsert(statement, gameData.getWhiteUsername(), gameData.getBlackUsername(), gameData.getGameName(), json, observersJson);
+        var statement = "INSERT INTO gameTable (whiteUsername, blackUsername, gameName, game) VALUES (?, ?, ?, ?)";
+        var json = GSON.toJson(gameData.getChessGame());
+        return executeInsert(statement, gameData.getWhiteUsername(), gameData.getBlackUsername(), gameData.getGameName(), json);
     }
 
     @Override
     public GameData getGame(Integer gameID) throws DataAccessException {
         if (gameID != null) {
-            try (var conn = getConnection()) {
-                var statement = prepareStatement(conn, "SELECT gameID, whiteUsername, blackUsername, gameName, game FROM gameTable WHERE gameID=?");
+            try (var conn = getConnection();
+                 var statement = prepareStatement(conn, "SELECT gameID, whiteUsername, blackUsername, gameName, game, snapshotPly, version, result FROM gameTable WHERE gameID=?")) {
                 statement.setInt(1, gameID);
                 try (var rs = statement.executeQuery()) {
                     if (rs.next()) {
-                        return readGameWithChessGame(rs);
+                        var gameData = readGameWithChessGame(rs);
+                        replayMoves(conn, gameData, rs.getInt("snapshotPly"));
+                        return gameData;
                     }
                 }
             } catch (Exception e) {
@@ -70,9 +122,31 @@ public class SQLGameDAO extends SQLBaseClass implements GameDAO {
         var gameName = rs.getString("gameName");
         var gameJson = rs.getString("game");
 
-        ChessGame chessGame = new Gson().fromJson(gameJson, ChessGame.class);
+        ChessGame chessGame = GSON.fromJson(gameJson, ChessGame.class);
 
-        return new GameData(gameID, whiteUsername, blackUsername, gameName, chessGame);
+        var gameData = new GameData(gameID, whiteUsername, blackUsername, gameName, chessGame);
+        gameData.setVersion(rs.getInt("version"));
+        var result = rs.getString("result");
+        gameData.setResult(result == null ? null : GameResult.valueOf(result));
+        return gameData;
+    }
+
+    private void replayMoves(Connection conn, GameData gameData, int snapshotPly) throws SQLException {
+        var chessGame = gameData.getChessGame();
+        var undo = new MoveUndo();
+        var ply = snapshotPly;
+        try (var statement = prepareStatement(conn, "SELECT move FROM moves WHERE gameID=? AND ply>? ORDER BY ply")) {
+            statement.setInt(1, gameData.getGameID());
+            statement.setInt(2, snapshotPly);
+            try (var rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    // Moves were checked legal when they were played
+                    chessGame.makeMove(rs.getInt("move"), undo);
+                    ply++;
+                }
+            }
+        }
+        gameData.setMoveCount(ply);
     }
 
     private Connection getConnection() throws SQLException, DataAccessException {
@@ -83,31 +157,26 @@ public class SQLGameDAO extends SQLBaseClass implements GameDAO {
         return conn.prepareStatement(statement);
     }
 
-    private GameRecord readGamesForListing(ResultSet rs) throws SQLException {
-        var gameID = rs.getInt("gameID");
-        var whiteUsername = rs.getString("whiteUsername");
-        var blackUsername = rs.getString("blackUsername");
-        var gameName = rs.getString("gameName");
-        var observersJson = rs.getString("observers");
-
-        List<String> observers = new ArrayList<>();
-        if (observersJson != null && !observersJson.isEmpty()) {
-            observers = new Gson().fromJson(observersJson, new TypeToken<List<String>>(){}.getType());
-        }
-
-        return new GameRecord(gameID, whiteUsername, blackUsername, gameName, observers);
-    }
-
     @Override
     public Collection<GameRecord> listGames() throws DataAccessException {
         var result = new ArrayList<GameRecord>();
-        try (var conn = DatabaseManager.getConnection()) {
-            var statement = "SELECT gameID, whiteUsername, blackUsername, gameName, observers FROM gameTable";
-            try (var ps = conn.prepareStatement(statement)) {
-                try (var rs = ps.executeQuery()) {
-                    while (rs.next()) {
-                        result.add(readGamesForListing(rs));
-                    }
+        // One row per observer, or one with a null observer for a game nobody watches
+        var statement = "SELECT g.gameID, g.whiteUsername, g.blackUsername, g.gameName, o.username AS observer "
+                + "FROM gameTable g LEFT JOIN game_observers o ON o.gameID = g.gameID ORDER BY g.gameID, o.username";
+        try (var conn = DatabaseManager.getConnection();
+             var ps = conn.prepareStatement(statement);
+             var rs = ps.executeQuery()) {
+            List<String> observers = null;
+            while (rs.next()) {
+                var gameID = rs.getInt("gameID");
+                if (result.isEmpty() || result.getLast().gameID() != gameID) {
+                    observers = new ArrayList<>();
+                    result.add(new GameRecord(gameID, rs.getString("whiteUsername"), rs.getString("blackUsername"),
+                            rs.getString("gameName"), observers));
+                }
+                var observer = rs.getString("observer");
+                if (observer != null) {
+                    observers.add(observer);
                 }
             }
         } catch (Exception e) {
@@ -118,134 +187,177 @@ public class SQLGameDAO extends SQLBaseClass implements GameDAO {
 
     @Override
     public void updateGame(GameData gameData) throws DataAccessException {
-        var statement = "UPDATE gameTable SET whiteUsername = ?, blackUsername = ?, gameName = ?, game = ? WHERE gameID = ?";
-        try {
-            String gameJson = new Gson().toJson(gameData.getChessGame());
-            executeUpdate(statement,
+        // The new position replaces every move recorded so far
+        var statement = "UPDATE gameTable SET whiteUsername = ?, blackUsername = ?, gameName = ?, game = ?, result = ?, "
+                + "snapshotPly = (SELECT COALESCE(MAX(ply), 0) FROM moves WHERE gameID = ?), version = version + 1 "
+                + "WHERE gameID = ? AND version = ?";
+        int rowsAffected;
+        try (var conn = getConnection(); var ps = prepareStatement(conn, statement)) {
+            String gameJson = GSON.toJson(gameData.getChessGame());
+            rowsAffected = executeUpdate(ps, new Object[]{
                     gameData.getWhiteUsername(),
                     gameData.getBlackUsername(),
                     gameData.getGameName(),
-                    gameJson);
-        } catch (Exception e) {
+                    gameJson,
+                    resultName(gameData),
+                    gameData.getGameID(),
+                    gameData.getGameID(),
+                    gameData.getVersion()});
+        } catch (SQLException e) {
             throw new DataAccessException(500, String.format("Unable to update game: %s", e.getMessage()));
         }
+        if (rowsAffected == 0) {
+            throw new DataAccessException(409, "Error: the game was changed by another request");
+        }
+        gameData.setVersion(gameData.getVersion() + 1);
+    }
+
+    @Override
+    public void addMove(GameData gameData, ChessMove move) throws DataAccessException {
+        var ply = gameData.getMoveCount();
+        var irreversible = GameState.halfmoveClock(gameData.getChessGame().getGameState()) == 0;
+        try (var conn = getConnection()) {
+            // Returning the connection to the pool rolls back whatever was not committed
+            conn.setAutoCommit(false);
+            // MySQL assigns left to right, so both IFs compare against the old snapshotPly
+            var claim = irreversible
+                    ? "UPDATE gameTable SET game = IF(? - snapshotPly >= ?, ?, game), "
+                    + "snapshotPly = IF(? - snapshotPly >= ?, ?, snapshotPly), "
+                    + "result = ?, version = version + 1 WHERE gameID = ? AND version = ?"
+                    : "UPDATE gameTable SET result = ?, version = version + 1 WHERE gameID = ? AND version = ?";
+            var params = irreversible
+                    ? new Object[]{ply, SNAPSHOT_INTERVAL, GSON.toJson(gameData.getChessGame()),
+                    ply, SNAPSHOT_INTERVAL, ply, resultName(gameData), gameData.getGameID(), gameData.getVersion()}
+                    : new Object[]{resultName(gameData), gameData.getGameID(), gameData.getVersion()};
+            try (var ps = prepareStatement(conn, claim)) {
+                if (executeUpdate(ps, params) == 0) {
+                    throw new DataAccessException(409, "Error: another move was made first");
+                }
+            }
+            try (var ps = prepareStatement(conn, "INSERT INTO moves (gameID, ply, move) VALUES (?, ?, ?)")) {
+                executeUpdate(ps, new Object[]{gameData.getGameID(), ply, Move.fromChessMove(move)});
+            }
+            conn.commit();
+        } catch (SQLIntegrityConstraintViolationException e) {
+            throw new DataAccessException(409, "Error: another move was made first");
+        } catch (SQLException e) {
+            throw new DataAccessException(500, String.format("Unable to add move: %s", e.getMessage()));
+        }
+        gameData.setVersion(gameData.getVersion() + 1);
+    }
+
+    private static String resultName(GameData gameData) {
+        return gameData.getResult() == null ? null : gameData.getResult().name();
     }
 
     @Override
     public void deleteGame(Integer gameID) throws DataAccessException {
-        try {
-            var statement = "DELETE FROM gameTable WHERE gameID=?";
-            executeUpdate(statement, gameID);
-        } catch (Exception e) {
+        try (var conn = getConnection()) {
+            // Returning the connection to the pool rolls back whatever was not committed
+            conn.setAutoCommit(false);
+            for (var statement : new String[]{"DELETE FROM moves WHERE gameID=?",
+                    "DELETE FROM game_observers WHERE gameID=?", "DELETE FROM gameTable WHERE gameID=?"}) {
+                try (var ps = prepareStatement(conn, statement)) {
+                    executeUpdate(ps, new Object[]{gameID});
+                }
+            }
+            conn.commit();
+        } catch (SQLException e) {
             throw new DataAccessException(400, "Error: Game does not exist " + e.getMessage());
         }
     }
 
     @Override
     public void addPlayer(Integer gameID, String username, PlayerColor requestedPlayerColor) throws DataAccessException {
-        try (var conn = DatabaseManager.getConnection()) {
-            GameData game = getGame(gameID);
-            if (game == null) {
-                throw new DataAccessException(400, "Error: bad request");
-            }
+        String seat;
+        if (gameID == null) {
+            throw new DataAccessException(400, "Error: bad request");
+        } else if (requestedPlayerColor == PlayerColor.WHITE) {
+            seat = "whiteUsername";
+        } else if (requestedPlayerColor == PlayerColor.BLACK) {
+            seat = "blackUsername";
+        } else {
+            throw new DataAccessException(400, "Error: bad request");
+        }
 
-            String updateStatement;
-            if (requestedPlayerColor == PlayerColor.WHITE) {
-                if (game.getWhiteUsername() != null) {
-                    throw new DataAccessException(403, "Error: already taken");
+        try (var conn = DatabaseManager.getConnection();
+             var read = prepareStatement(conn, "SELECT " + seat + ", version FROM gameTable WHERE gameID = ?");
+             var claim = prepareStatement(conn, "UPDATE gameTable SET " + seat + " = ?, version = version + 1 WHERE gameID = ? AND version = ?")) {
+            for (var attempt = 0; attempt < CLAIM_ATTEMPTS; attempt++) {
+                read.setInt(1, gameID);
+                int version;
+                try (var rs = read.executeQuery()) {
+                    if (!rs.next()) {
+                        throw new DataAccessException(400, "Error: bad request");
+                    }
+                    if (rs.getString(seat) != null) {
+                        throw new DataAccessException(403, "Error: already taken");
+                    }
+                    version = rs.getInt("version");
                 }
-                updateStatement = "UPDATE gameTable SET whiteUsername = ? WHERE gameID = ?";
-            } else if (requestedPlayerColor == PlayerColor.BLACK) {
-                if (game.getBlackUsername() != null) {
-                    throw new DataAccessException(403, "Error: already taken");
-                }
-                updateStatement = "UPDATE gameTable SET blackUsername = ? WHERE gameID = ?";
-            } else {
-                throw new DataAccessException(400, "Error: bad request");
-            }
-
-            try (var ps = conn.prepareStatement(updateStatement)) {
-                ps.setString(1, username);
-                ps.setInt(2, gameID);
-                int rowsAffected = ps.executeUpdate();
-                if (rowsAffected == 0) {
-                    throw new DataAccessException(500, "Error: failed to update game");
+                if (executeUpdate(claim, new Object[]{username, gameID, version}) == 1) {
+                    return;
                 }
+                // Someone else wrote the game since it was read; look again in case they took the seat
             }
         } catch (SQLException e) {
             throw new DataAccessException(500, String.format("Unable to add player to game: %s", e.getMessage()));
         }
+        throw new DataAccessException(409, "Error: the game is busy, try again");
     }
 
 
     @Override
     public void addObserver(Integer gameID, String username) throws DataAccessException {
-        try (var conn = DatabaseManager.getConnection()) {
-            GameData game = validateGameExists(gameID);
-
-            List<String> observers = updateObserversList(gameID, username);
-
-            updateObserversInDatabase(conn, gameID, observers);
-        } catch (SQLException e) {
-            throw new DataAccessException(500, String.format("Unable to add observer to game: %s", e.getMessage()));
-        }
-    }
-
-    private GameData validateGameExists(Integer gameID) throws DataAccessException {
-        GameData game = getGame(gameID);
-        if (game == null) {
+        if (gameID == null) {
             throw new DataAccessException(400, "Error: game not found");
         }
-        return game;
-    }
-
-    private List<String> updateObserversList(Integer gameID, String username) throws DataAccessException {
-        List<String> observers = getObservers(gameID);
-        if (!observers.contains(username)) {
-            observers.add(username);
-        }
-        return observers;
-    }
-
-    private void updateObserversInDatabase(Connection conn, Integer gameID, List<String> observers) throws SQLException, DataAccessException {
-        String observersJson = new Gson().toJson(observers);
-        String updateStatement = "UPDATE gameTable SET observers = ? WHERE gameID = ?";
-        try (var ps = conn.prepareStatement(updateStatement)) {
-            ps.setString(1, observersJson);
-            ps.setInt(2, gameID);
-            int rowsAffected = ps.executeUpdate();
-            if (rowsAffected == 0) {
-                throw new DataAccessException(500, "Error: failed to update game observers");
+        // Inserts nothing if the game does not exist or the user already observes it
+        var statement = "INSERT IGNORE INTO game_observers (gameID, username) SELECT gameID, ? FROM gameTable WHERE gameID = ?";
+        try (var conn = DatabaseManager.getConnection()) {
+            try (var ps = conn.prepareStatement(statement)) {
+                if (executeUpdate(ps, new Object[]{username, gameID}) == 1) {
+                    return;
+                }
+            }
+            try (var ps = conn.prepareStatement("SELECT 1 FROM gameTable WHERE gameID = ?")) {
+                ps.setInt(1, gameID);
+                try (var rs = ps.executeQuery()) {
+                    if (!rs.next()) {
+                        throw new DataAccessException(400, "Error: game not found");
+                    }
+                }
             }
+        } catch (SQLException e) {
+            throw new DataAccessException(500, String.format("Unable to add observer to game: %s", e.getMessage()));
         }
     }
 
-
     @Override
     public List<String> getObservers(Integer gameID) throws DataAccessException {
+        var observers = new ArrayList<String>();
         try (
                 var conn = DatabaseManager.getConnection();
-                var ps = conn.prepareStatement("SELECT observers FROM gameTable WHERE gameID = ?");
+                var ps = conn.prepareStatement("SELECT username FROM game_observers WHERE gameID = ? ORDER BY username");
         ) {
             ps.setInt(1, gameID);
             try (var rs = ps.executeQuery()) {
-                if (rs.next()) {
-                    String observersJson = rs.getString("observers");
-                    if (observersJson != null && !observersJson.isEmpty()) {
-                        return new Gson().fromJson(observersJson, new TypeToken<List<String>>() {}.getType());
-                    }
+                while (rs.next()) {
+                    observers.add(rs.getString("username"));
                 }
             }
         }
         catch (SQLException e) {
             throw new DataAccessException(500, String.format("Unable to get observers for game: %s", e.getMessage()));
         }
-        return new ArrayList<>();
+        return observers;
     }
 
     @Override
     public void clearGameData() throws DataAccessException {
         try {
+            executeUpdate("TRUNCATE moves");
+            executeUpdate("TRUNCATE game_observers");
             var statement = "TRUNCATE gameTable";
             executeUpdate(statement);
         } catch (Exception e) {
@@ -256,12 +368,8 @@ public class SQLGameDAO extends SQLBaseClass implements GameDAO {
 
     private void executeUpdate(String statement, Object... params) throws DataAccessException {
         try (var conn = DatabaseManager.getConnection()) {
-            try (var ps = conn.prepareStatement(statement, RETURN_GENERATED_KEYS)) {
+            try (var ps = conn.prepareStatement(statement)) {
                 executeUpdate(ps, params);
-                var rs = ps.getGeneratedKeys();
-                if (rs.next()) {
-                    rs.getInt(1);
-                }
             }
         } catch (Exception e) {
             throw new DataAccessException(500, String.format("Unable to update database: %s, %s", statement, e.getMessage()));
@@ -272,9 +380,10 @@ public class SQLGameDAO extends SQLBaseClass implements GameDAO {
         try (var conn = DatabaseManager.getConnection()) {
             try (var ps = conn.prepareStatement(statement, RETURN_GENERATED_KEYS)) {
                 executeUpdate(ps, params);
-                var rs = ps.getGeneratedKeys();
-                if (rs.next()) {
-                    return rs.getInt(1);
+                try (var rs = ps.getGeneratedKeys()) {
+                    if (rs.next()) {
+                        return rs.getInt(1);
+                    }
                 }
             }
         } catch (Exception e) {
@@ -282,18 +391,4 @@ public class SQLGameDAO extends SQLBaseClass implements GameDAO {
         }
         return null;
     }
-
-    static void executeUpdate(PreparedStatement ps, Object[] params) throws SQLException {
-        for (var i = 0; i < params.length; i++) {
-            var param = params[i];
-            switch (param) {
-                case String p -> ps.setString(i + 1, p);
-                case Integer p -> ps.setInt(i + 1, p);
-                case null -> ps.setNull(i + 1, NULL);
-                default -> {
-                }
-            }
-        }
-        ps.executeUpdate();
-    }
 }
@@ -101,7 +101,7 @@ public class GameHandler {
         }
 
         try {
-            gameService.makeMove(authToken, makeMoveRequest.gameData());
+            gameService.makeMove(authToken, makeMoveRequest.gameID(), makeMoveRequest.move());
             response.status(200);
             return GSON.toJson(new CommonResponse(null));
         } catch (DataAccessException e) {
@@ -1,5 +1,8 @@
 package service;
 
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
 import dataaccess.DAOFactory;
 import dataaccess.DataAccessException;
 import dataaccess.idao.AuthDAO;
@@ -7,6 +10,7 @@ import dataaccess.idao.GameDAO;
 import model.AuthData;
 import model.GameData;
 import model.GameRecord;
+import model.GameResult;
 import utils.PlayerColor;
 
 import java.util.ArrayList;
@@ -47,22 +51,53 @@ public class GameService {
         }
     }
 
-    public void makeMove(String authToken, GameData gameData) throws DataAccessException {
+    /**
+     * Plays a move for the player whose turn it is. Only the move is stored, not the whole game.
+     * A move that checkmates, stalemates or draws ends the game, and no more moves are taken.
+     */
+    public void makeMove(String authToken, Integer gameID, ChessMove move) throws DataAccessException {
         validateAuthToken(authToken);
-        updateGameData(gameData);
+        if (move == null) {
+            throw new DataAccessException(400, "Error: bad request");
+        }
+        AuthData authData = this.authDAO.getAuth(authToken);
+        GameData gameData = getGame(gameID, authToken);
+        if (gameData.getResult() != null) {
+            throw new DataAccessException(400, "Error: game is over");
+        }
+        ChessGame game = gameData.getChessGame();
+        String player = game.getTeamTurn() == ChessGame.TeamColor.WHITE
+                ? gameData.getWhiteUsername() : gameData.getBlackUsername();
+        if (!authData.username().equals(player)) {
+            throw new DataAccessException(403, "Error: not your turn");
+        }
+        try {
+            game.makeMove(move);
+        } catch (InvalidMoveException e) {
+            throw new DataAccessException(400, "Error: illegal move");
+        }
+        gameData.setMoveCount(gameData.getMoveCount() + 1);
+        gameData.setResult(resultOf(game));
+        gameDao.addMove(gameData, move);
     }
 
-    private void validateAuthToken(String authToken) throws DataAccessException {
-        if (!authDAO.verifyAuth(authToken)) {
-            throw new DataAccessException(401, "Error: Invalid authentication token");
+    /**
+     * @return how the game ended with the move just made, or null if it goes on
+     */
+    private static GameResult resultOf(ChessGame game) {
+        ChessGame.TeamColor toMove = game.getTeamTurn();
+        if (game.isInCheckmate(toMove)) {
+            return toMove == ChessGame.TeamColor.WHITE ? GameResult.BLACK_WINS : GameResult.WHITE_WINS;
         }
+        if (game.isInStalemate(toMove) || game.isDraw()) {
+            return GameResult.DRAW;
+        }
+        return null;
     }
 
-    private void updateGameData(GameData gameData) throws DataAccessException {
-        try {
-            gameDao.updateGame(gameData);
-        } catch (DataAccessException e) {
-            throw new DataAccessException(e.getStatusCode(), e.getMessage());
+    private void validateAuthToken(String authToken) throws DataAccessException {
+        if (!authDAO.verifyAuth(authToken)) {
+            throw new DataAccessException(401, "Error: Invalid authentication token");
         }
     }
 
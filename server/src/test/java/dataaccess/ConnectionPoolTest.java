@@ -0,0 +1,232 @@
+package dataaccess;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConnectionPoolTest {
+
+    /**
+     * Stands in for a database connection, recording how the pool treats it
+     */
+    private static final class FakeConnection {
+        boolean valid = true;
+        boolean closed;
+        boolean autoCommit = true;
+        int rollbacks;
+        int prepared;
+        int statementsClosed;
+
+        Connection connection() {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, (proxy, method, args) -> switch (method.getName()) {
+                        case "isValid" -> valid;
+                        case "isClosed" -> closed;
+                        case "close" -> {
+                            closed = true;
+                            yield null;
+                        }
+                        case "getAutoCommit" -> autoCommit;
+                        case "setAutoCommit" -> {
+                            autoCommit = (Boolean) args[0];
+                            yield null;
+                        }
+                        case "rollback" -> {
+                            rollbacks++;
+                            yield null;
+                        }
+                        case "getCatalog" -> "chess";
+                        case "prepareStatement" -> {
+                            prepared++;
+                            yield statement();
+                        }
+                        default -> throw new UnsupportedOperationException(method.getName());
+                    });
+        }
+
+        PreparedStatement statement() {
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> switch (method.getName()) {
+                        case "setInt", "clearParameters" -> null;
+                        case "close" -> {
+                            statementsClosed++;
+                            yield null;
+                        }
+                        case "executeUpdate" -> 1;
+                        default -> throw new UnsupportedOperationException(method.getName());
+                    });
+        }
+    }
+
+    private final List<FakeConnection> opened = new ArrayList<>();
+
+    private ConnectionPool pool(PoolSettings settings) {
+        return new ConnectionPool(() -> {
+            FakeConnection fake = new FakeConnection();
+            opened.add(fake);
+            return fake.connection();
+        }, settings);
+    }
+
+    @Test
+    void reusesReturnedConnections() throws Exception {
+        ConnectionPool pool = pool(PoolSettings.DEFAULT);
+        for (int i = 0; i < 5; i++) {
+            try (var conn = pool.getConnection()) {
+                assertEquals("chess", conn.getCatalog());
+            }
+        }
+        assertEquals(1, opened.size());
+        assertFalse(opened.get(0).closed);
+
+        PoolMetrics metrics = pool.getMetrics();
+        assertEquals(0, metrics.active());
+        assertEquals(1, metrics.idle());
+        assertEquals(5, metrics.borrows());
+        assertEquals(1, metrics.created());
+    }
+
+    @Test
+    void returnedConnectionCannotBeUsed() throws Exception {
+        ConnectionPool pool = pool(PoolSettings.DEFAULT);
+        var conn = pool.getConnection();
+        conn.close();
+        conn.close();
+        assertTrue(conn.isClosed());
+        assertThrows(SQLException.class, conn::getCatalog);
+        assertEquals(1, pool.getMetrics().idle());
+    }
+
+    @Test
+    void waitsThenTimesOutWhenExhausted() throws Exception {
+        ConnectionPool pool = pool(new PoolSettings(1, 50, 60_000, 60_000, 1_000, 1, 8));
+        try (var ignored = pool.getConnection()) {
+            DataAccessException e = assertThrows(DataAccessException.class, pool::getConnection);
+            assertEquals(500, e.getStatusCode());
+        }
+        PoolMetrics metrics = pool.getMetrics();
+        assertEquals(1, metrics.timeouts());
+        assertTrue(metrics.maxWaitNanos() >= 40_000_000L);
+        assertDoesNotThrow(() -> pool.getConnection().close());
+    }
+
+    @Test
+    void replacesInvalidAndExpiredConnections() throws Exception {
+        ConnectionPool pool = pool(new PoolSettings(2, 1_000, 60_000, 60_000, 0, 1, 8));
+        pool.getConnection().close();
+        opened.get(0).valid = false;
+        Thread.sleep(2);
+        pool.getConnection().close();
+        assertEquals(2, opened.size());
+        assertTrue(opened.get(0).closed);
+
+        ConnectionPool shortLived = pool(new PoolSettings(2, 1_000, 60_000, 0, 60_000, 1, 8));
+        shortLived.getConnection().close();
+        assertEquals(0, shortLived.getMetrics().idle());
+        assertTrue(opened.get(2).closed);
+    }
+
+    @Test
+    void rollsBackUnfinishedTransactions() throws Exception {
+        ConnectionPool pool = pool(PoolSettings.DEFAULT);
+        try (var conn = pool.getConnection()) {
+            conn.setAutoCommit(false);
+        }
+        assertEquals(1, opened.get(0).rollbacks);
+        assertTrue(opened.get(0).autoCommit);
+    }
+
+    @Test
+    void closeReleasesIdleConnections() throws Exception {
+        ConnectionPool pool = pool(PoolSettings.DEFAULT);
+        var lent = pool.getConnection();
+        pool.getConnection().close();
+        pool.close();
+        assertTrue(opened.get(1).closed);
+        assertFalse(opened.get(0).closed);
+        lent.close();
+        assertTrue(opened.get(0).closed);
+        assertThrows(DataAccessException.class, pool::getConnection);
+    }
+
+    @Test
+    void reusesPreparedStatements() throws Exception {
+        ConnectionPool pool = pool(PoolSettings.DEFAULT);
+        for (int i = 0; i < 3; i++) {
+            try (var conn = pool.getConnection();
+                 var ps = conn.prepareStatement("UPDATE gameTable SET version = ? WHERE gameID = ?")) {
+                ps.setInt(1, i);
+                assertEquals(1, ps.executeUpdate());
+            }
+        }
+        assertEquals(1, opened.get(0).prepared);
+
+        try (var conn = pool.getConnection();
+             var first = conn.prepareStatement("SELECT 1");
+             var second = conn.prepareStatement("SELECT 1")) {
+            assertNotSame(first, second);
+            first.close();
+            assertTrue(first.isClosed());
+            assertThrows(SQLException.class, () -> first.setInt(1, 1));
+        }
+        assertEquals(3, opened.get(0).prepared);
+
+        PoolMetrics metrics = pool.getMetrics();
+        assertEquals(2, metrics.statementHits());
+        assertEquals(3, metrics.statementMisses());
+    }
+
+    @Test
+    void dropsLeastRecentlyUsedStatements() throws Exception {
+        ConnectionPool pool = pool(new PoolSettings(1, 1_000, 60_000, 60_000, 1_000, 1, 2));
+        for (String sql : List.of("SELECT 1", "SELECT 2", "SELECT 3", "SELECT 1")) {
+            try (var conn = pool.getConnection()) {
+                conn.prepareStatement(sql).close();
+            }
+        }
+        assertEquals(4, opened.get(0).prepared);
+    }
+
+    @Test
+    void closesStatementsLeakedByABorrower() throws Exception {
+        ConnectionPool pool = pool(PoolSettings.DEFAULT);
+        var first = pool.getConnection();
+        var leaked = first.prepareStatement("SELECT 1");
+        first.close();
+
+        assertTrue(leaked.isClosed());
+        assertThrows(SQLException.class, () -> leaked.setInt(1, 1));
+        assertEquals(1, opened.get(0).statementsClosed);
+
+        try (var conn = pool.getConnection();
+             var ps = conn.prepareStatement("SELECT 1")) {
+            assertEquals(2, opened.get(0).prepared);
+            leaked.close();
+            ps.setInt(1, 2);
+            assertEquals(1, ps.executeUpdate());
+        }
+        try (var conn = pool.getConnection();
+             var ps = conn.prepareStatement("SELECT 1")) {
+            assertEquals(2, opened.get(0).prepared);
+        }
+    }
+
+    @Test
+    void statementsReportThePooledConnection() throws Exception {
+        ConnectionPool pool = pool(PoolSettings.DEFAULT);
+        try (var conn = pool.getConnection();
+             var cached = conn.prepareStatement("SELECT 1");
+             var uncached = conn.prepareStatement("SELECT 1")) {
+            assertSame(conn, cached.getConnection());
+            assertSame(conn, uncached.getConnection());
+        }
+        assertEquals(1, opened.get(0).statementsClosed);
+    }
+}
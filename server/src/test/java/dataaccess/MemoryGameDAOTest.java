@@ -0,0 +1,62 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import dataaccess.memorydao.MemoryGameDAO;
+import model.GameData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemoryGameDAOTest {
+
+    private MemoryGameDAO gameDAO;
+
+    @BeforeEach
+    void setUp() throws DataAccessException {
+        gameDAO = new MemoryGameDAO();
+        gameDAO.addGame(new GameData(1, null, null, "Test Game", new ChessGame()));
+    }
+
+    @Test
+    void getGamePositiveReturnsCopy() throws DataAccessException {
+        GameData game = gameDAO.getGame(1);
+        game.setWhiteUsername("white");
+
+        assertNotSame(game, gameDAO.getGame(1));
+        assertNull(gameDAO.getGame(1).getWhiteUsername());
+    }
+
+    @Test
+    void updateGameNegativeStaleVersion() throws DataAccessException {
+        GameData first = gameDAO.getGame(1);
+        GameData second = gameDAO.getGame(1);
+        first.setWhiteUsername("white");
+        second.setBlackUsername("black");
+
+        assertDoesNotThrow(() -> gameDAO.updateGame(first));
+        var e = assertThrows(DataAccessException.class, () -> gameDAO.updateGame(second));
+        assertEquals(409, e.getStatusCode());
+        assertEquals("white", gameDAO.getGame(1).getWhiteUsername());
+        assertNull(gameDAO.getGame(1).getBlackUsername());
+    }
+
+    @Test
+    void addMoveNegativeConflictLeavesGameUnchanged() throws Exception {
+        GameData first = gameDAO.getGame(1);
+        GameData second = gameDAO.getGame(1);
+        first.getChessGame().makeMove(ChessMove.parse("e2e4"));
+        first.setMoveCount(1);
+        gameDAO.addMove(first, ChessMove.parse("e2e4"));
+
+        second.getChessGame().makeMove(ChessMove.parse("d2d4"));
+        second.setMoveCount(1);
+        var e = assertThrows(DataAccessException.class, () -> gameDAO.addMove(second, ChessMove.parse("d2d4")));
+        assertEquals(409, e.getStatusCode());
+
+        GameData stored = gameDAO.getGame(1);
+        assertEquals(1, stored.getMoveCount());
+        assertEquals(first.getChessGame().toFen(), stored.getChessGame().toFen());
+    }
+}
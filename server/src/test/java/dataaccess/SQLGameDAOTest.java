@@ -1,6 +1,7 @@
 package dataaccess;
 
 import chess.ChessGame;
+import chess.ChessMove;
 import dataaccess.sqldao.SQLGameDAO;
 import model.GameData;
 import model.GameRecord;
@@ -10,6 +11,9 @@ import utils.PlayerColor;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -159,4 +163,148 @@ class SQLGameDAOTest {
         assertDoesNotThrow(() -> gameDAO.clearGameData());
         assertTrue(gameDAO.listGames().isEmpty());
     }
-}
\ No newline at end of file
+
+    @Test
+    void addMovePositive() throws Exception {
+        gameDAO.addGame(new GameData(1, null, null, "Test Game", new ChessGame()));
+        GameData game = gameDAO.getGame(1);
+        ChessMove move = ChessMove.parse("e2e4");
+        game.getChessGame().makeMove(move);
+        game.setMoveCount(1);
+
+        assertDoesNotThrow(() -> gameDAO.addMove(game, move));
+        GameData reloaded = gameDAO.getGame(1);
+        assertEquals(1, reloaded.getMoveCount());
+        assertEquals(game.getChessGame().toFen(), reloaded.getChessGame().toFen());
+    }
+
+    @Test
+    void addMovePositivePastSnapshot() throws Exception {
+        gameDAO.addGame(new GameData(1, null, null, "Test Game", new ChessGame()));
+        String[] shuffle = {"g1f3", "g8f6", "f3g1", "f6g8"};
+        GameData game = gameDAO.getGame(1);
+        int plies = SQLGameDAO.SNAPSHOT_INTERVAL + 3;
+        for (int i = 0; i < plies; i++) {
+            ChessMove move = ChessMove.parse(shuffle[i % shuffle.length]);
+            game.getChessGame().makeMove(move);
+            game.setMoveCount(i + 1);
+            gameDAO.addMove(game, move);
+        }
+
+        GameData reloaded = gameDAO.getGame(1);
+        assertEquals(plies, reloaded.getMoveCount());
+        assertEquals(game.getChessGame().toFen(), reloaded.getChessGame().toFen());
+    }
+
+    @Test
+    void addMoveNegativeSamePlyTwice() throws Exception {
+        gameDAO.addGame(new GameData(1, null, null, "Test Game", new ChessGame()));
+        GameData game = gameDAO.getGame(1);
+        game.getChessGame().makeMove(ChessMove.parse("e2e4"));
+        game.setMoveCount(1);
+        gameDAO.addMove(game, ChessMove.parse("e2e4"));
+
+        GameData stale = gameDAO.getGame(1);
+        stale.setMoveCount(1);
+        var e = assertThrows(DataAccessException.class, () -> gameDAO.addMove(stale, ChessMove.parse("d2d4")));
+        assertEquals(409, e.getStatusCode());
+    }
+
+    @Test
+    void updateGamePositive() throws DataAccessException {
+        gameDAO.addGame(new GameData(1, null, null, "Test Game", new ChessGame()));
+        GameData game = gameDAO.getGame(1);
+        game.setWhiteUsername("white");
+
+        assertDoesNotThrow(() -> gameDAO.updateGame(game));
+        assertEquals("white", gameDAO.getGame(1).getWhiteUsername());
+        assertEquals(game.getVersion(), gameDAO.getGame(1).getVersion());
+    }
+
+    @Test
+    void updateGameNegativeStaleVersion() throws DataAccessException {
+        gameDAO.addGame(new GameData(1, null, null, "Test Game", new ChessGame()));
+        GameData stale = gameDAO.getGame(1);
+        gameDAO.addPlayer(1, "white", PlayerColor.WHITE);
+
+        stale.setBlackUsername("black");
+        var e = assertThrows(DataAccessException.class, () -> gameDAO.updateGame(stale));
+        assertEquals(409, e.getStatusCode());
+        assertEquals("white", gameDAO.getGame(1).getWhiteUsername());
+        assertNull(gameDAO.getGame(1).getBlackUsername());
+    }
+
+    @Test
+    void addPlayerNegativeConcurrentClaims() throws Exception {
+        gameDAO.addGame(new GameData(1, null, null, "Test Game", new ChessGame()));
+        var claims = new ArrayList<Callable<Boolean>>();
+        for (int i = 0; i < 8; i++) {
+            String username = "user" + i;
+            claims.add(() -> {
+                try {
+                    gameDAO.addPlayer(1, username, PlayerColor.WHITE);
+                    return true;
+                } catch (DataAccessException e) {
+                    return false;
+                }
+            });
+        }
+
+        int joined = 0;
+        try (var executor = Executors.newFixedThreadPool(claims.size())) {
+            for (Future<Boolean> claim : executor.invokeAll(claims)) {
+                joined += claim.get() ? 1 : 0;
+            }
+        }
+        assertEquals(1, joined);
+        assertNotNull(gameDAO.getGame(1).getWhiteUsername());
+    }
+
+    @Test
+    void addObserverPositiveTwice() throws DataAccessException {
+        gameDAO.addGame(new GameData(1, null, null, "Test Game", new ChessGame()));
+
+        assertDoesNotThrow(() -> gameDAO.addObserver(1, "watcher"));
+        assertDoesNotThrow(() -> gameDAO.addObserver(1, "watcher"));
+        assertEquals(List.of("watcher"), gameDAO.getObservers(1));
+    }
+
+    @Test
+    void addObserverNegativeNonExistentGame() {
+        var e = assertThrows(DataAccessException.class, () -> gameDAO.addObserver(999, "watcher"));
+        assertEquals(400, e.getStatusCode());
+    }
+
+    @Test
+    void listGamesPositiveWithObservers() throws DataAccessException {
+        gameDAO.addGame(new GameData(1, null, null, "Test Game 1", new ChessGame()));
+        gameDAO.addGame(new GameData(2, null, null, "Test Game 2", new ChessGame()));
+        gameDAO.addObserver(1, "b");
+        gameDAO.addObserver(1, "a");
+
+        List<GameRecord> games = new ArrayList<>(gameDAO.listGames());
+        assertEquals(2, games.size());
+        assertEquals(List.of("a", "b"), games.get(0).observers());
+        assertTrue(games.get(1).observers().isEmpty());
+    }
+
+    @Test
+    void getGamePositiveRepetitionAcrossSnapshotInterval() throws Exception {
+        gameDAO.addGame(new GameData(1, null, null, "Test Game", new ChessGame()));
+        GameData game = gameDAO.getGame(1);
+        List<String> moves = new ArrayList<>(List.of("e2e4", "e7e5"));
+        for (int i = 0; i < 5; i++) {
+            moves.addAll(List.of("g1f3", "g8f6", "f3g1", "f6g8"));
+        }
+        for (String text : moves) {
+            ChessMove move = ChessMove.parse(text);
+            game.getChessGame().makeMove(move);
+            game.setMoveCount(game.getMoveCount() + 1);
+            gameDAO.addMove(game, move);
+        }
+
+        GameData reloaded = gameDAO.getGame(1);
+        assertTrue(moves.size() > SQLGameDAO.SNAPSHOT_INTERVAL);
+        assertTrue(reloaded.getChessGame().isDrawByRepetition());
+    }
+}
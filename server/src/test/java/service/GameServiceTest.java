@@ -1,5 +1,6 @@
 package service;
 
+import chess.ChessMove;
 import dataaccess.DAOFactory;
 import dataaccess.DataAccessException;
 import dataaccess.idao.AuthDAO;
@@ -104,4 +105,44 @@ class GameServiceTest {
     void shouldThrowExceptionWhenListingGamesWithInvalidAuthToken() {
         assertThrows(DataAccessException.class, () -> gameServiceToTest.listGames("whoopsie"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldMakeMoveWhenItIsPlayersTurn() throws DataAccessException {
+        String validToken = testAuthData.authToken();
+        Integer gameId = gameServiceToTest.createGame("valorant", validToken);
+        gameServiceToTest.joinGame(gameId, PlayerColor.WHITE, validToken);
+
+        assertDoesNotThrow(() -> gameServiceToTest.makeMove(validToken, gameId, ChessMove.parse("e2e4")));
+        GameData game = gameServiceToTest.getGame(gameId, validToken);
+        assertEquals(1, game.getMoveCount());
+        assertNotNull(game.getChessGame().getBoard().getPiece(ChessMove.parse("e2e4").getEndPosition()));
+    }
+
+    @Test
+    void shouldNotMakeMoveWhenItIsNotPlayersTurn() throws DataAccessException {
+        String validToken = testAuthData.authToken();
+        Integer gameId = gameServiceToTest.createGame("valorant", validToken);
+        gameServiceToTest.joinGame(gameId, PlayerColor.BLACK, validToken);
+
+        var e = assertThrows(DataAccessException.class,
+                () -> gameServiceToTest.makeMove(validToken, gameId, ChessMove.parse("e2e4")));
+        assertEquals(403, e.getStatusCode());
+    }
+
+    @Test
+    void shouldEndGameOnCheckmate() throws DataAccessException {
+        String validToken = testAuthData.authToken();
+        Integer gameId = gameServiceToTest.createGame("valorant", validToken);
+        gameServiceToTest.joinGame(gameId, PlayerColor.WHITE, validToken);
+        gameServiceToTest.joinGame(gameId, PlayerColor.BLACK, validToken);
+
+        for (String move : new String[]{"f2f3", "e7e5", "g2g4", "d8h4"}) {
+            gameServiceToTest.makeMove(validToken, gameId, ChessMove.parse(move));
+        }
+        assertEquals(GameResult.BLACK_WINS, gameServiceToTest.getGame(gameId, validToken).getResult());
+
+        var e = assertThrows(DataAccessException.class,
+                () -> gameServiceToTest.makeMove(validToken, gameId, ChessMove.parse("a2a3")));
+        assertEquals(400, e.getStatusCode());
+    }
+}
@@ -0,0 +1,111 @@
+package chess;
+
+/**
+ * Precomputed attack tables and sliding-piece helpers for the 64-bit board masks used by
+ * {@link ChessBoard}. Square 0 is a1, square 7 is h1 and square 63 is h8.
+ */
+final class Bitboards {
+    static final int NO_SQUARE = -1;
+
+    // Ray directions; the first four walk toward higher square indexes
+    static final int NORTH = 0;
+    static final int NORTH_EAST = 1;
+    static final int EAST = 2;
+    static final int NORTH_WEST = 3;
+    static final int SOUTH = 4;
+    static final int SOUTH_WEST = 5;
+    static final int WEST = 6;
+    static final int SOUTH_EAST = 7;
+
+    private static final int[][] DIRECTION_DELTAS = {
+            {1, 0}, {1, 1}, {0, 1}, {1, -1},
+            {-1, 0}, {-1, -1}, {0, -1}, {-1, 1}
+    };
+
+    static final long[] KNIGHT_ATTACKS = new long[64];
+    static final long[] KING_ATTACKS = new long[64];
+    /** Squares a pawn of the given color (by ordinal) attacks from each square */
+    static final long[][] PAWN_ATTACKS = new long[2][64];
+    /** Squares along each direction from each square, up to the edge of the board */
+    static final long[][] RAYS = new long[8][64];
+    /** Squares strictly between two squares sharing a rank, file or diagonal, otherwise empty */
+    static final long[][] BETWEEN = new long[64][64];
+    /** The whole rank, file or diagonal through two aligned squares, otherwise empty */
+    static final long[][] LINE = new long[64][64];
+
+    static {
+        int[][] knightOffsets = {
+                {2, 1}, {2, -1}, {-2, 1}, {-2, -1},
+                {1, 2}, {1, -2}, {-1, 2}, {-1, -2}
+        };
+        for (int square = 0; square < 64; square++) {
+            int row = square >>> 3;
+            int col = square & 7;
+            for (int[] offset : knightOffsets) {
+                KNIGHT_ATTACKS[square] |= maskOf(row + offset[0], col + offset[1]);
+            }
+            for (int[] delta : DIRECTION_DELTAS) {
+                KING_ATTACKS[square] |= maskOf(row + delta[0], col + delta[1]);
+            }
+            PAWN_ATTACKS[0][square] = maskOf(row + 1, col - 1) | maskOf(row + 1, col + 1);
+            PAWN_ATTACKS[1][square] = maskOf(row - 1, col - 1) | maskOf(row - 1, col + 1);
+            for (int dir = 0; dir < 8; dir++) {
+                int r = row + DIRECTION_DELTAS[dir][0];
+                int c = col + DIRECTION_DELTAS[dir][1];
+                while (onBoard(r, c)) {
+                    RAYS[dir][square] |= 1L << (r * 8 + c);
+                    r += DIRECTION_DELTAS[dir][0];
+                    c += DIRECTION_DELTAS[dir][1];
+                }
+            }
+        }
+        for (int from = 0; from < 64; from++) {
+            for (int dir = 0; dir < 8; dir++) {
+                long ray = RAYS[dir][from];
+                long opposite = RAYS[(dir + 4) % 8][from];
+                for (long targets = ray; targets != 0; targets &= targets - 1) {
+                    int to = Long.numberOfTrailingZeros(targets);
+                    BETWEEN[from][to] = ray & ~RAYS[dir][to] & ~(1L << to);
+                    LINE[from][to] = ray | opposite | (1L << from);
+                }
+            }
+        }
+    }
+
+    private Bitboards() {
+    }
+
+    private static boolean onBoard(int row, int col) {
+        return row >= 0 && row < 8 && col >= 0 && col < 8;
+    }
+
+    private static long maskOf(int row, int col) {
+        return onBoard(row, col) ? 1L << (row * 8 + col) : 0L;
+    }
+
+    /**
+     * Squares reached from a square along one direction, stopping at (and including) the
+     * first occupied square.
+     */
+    static long rayAttacks(int direction, int square, long occupied) {
+        long ray = RAYS[direction][square];
+        long blockers = ray & occupied;
+        if (blockers == 0) {
+            return ray;
+        }
+        int blocker = direction < SOUTH
+                ? Long.numberOfTrailingZeros(blockers)
+                : 63 - Long.numberOfLeadingZeros(blockers);
+        return ray ^ RAYS[direction][blocker];
+    }
+
+    static long rookAttacks(int square, long occupied) {
+        return rayAttacks(NORTH, square, occupied) | rayAttacks(EAST, square, occupied)
+                | rayAttacks(SOUTH, square, occupied) | rayAttacks(WEST, square, occupied);
+    }
+
+    static long bishopAttacks(int square, long occupied) {
+        return rayAttacks(NORTH_EAST, square, occupied) | rayAttacks(NORTH_WEST, square, occupied)
+                | rayAttacks(SOUTH_EAST, square, occupied) | rayAttacks(SOUTH_WEST, square, occupied);
+    }
+}
@@ -4,20 +4,45 @@ import java.util.Arrays;
 /**
  * A chessboard that can hold and rearrange chess pieces.
  * <p>
+ * The board is stored as twelve bitboards, one per color and piece type, where bit
+ * {@code (row - 1) * 8 + (column - 1)} is set when that square holds the piece. Per-color
+ * and total occupancy masks are kept alongside so that copying a board is a handful of
+ * {@code long} copies rather than a grid of piece objects.
+ * <p>
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
  */
 public class ChessBoard implements Cloneable{
-    private ChessPiece[][] board = new ChessPiece[8][8];
+    static final int PIECE_KINDS = 12;
+    static final int NO_PIECE = -1;
+    private static final int PAWN = ChessPiece.PieceType.PAWN.ordinal();
 
-    public ChessBoard() {
-        for (int r = 0; r < 8; r++) {
-            for (int c = 0; c < 8; c++) {
-                board[r][c] = null;
+    private static final ChessPiece[] PIECES = new ChessPiece[PIECE_KINDS];
+    // FEN letters for white pieces by PieceType ordinal; black uses lower case
+    private static final String FEN_LETTERS = "KQBNRP";
+
+    static {
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (ChessPiece.PieceType type : ChessPiece.PieceType.values()) {
+                PIECES[pieceIndex(color, type)] = new ChessPiece(color, type);
             }
         }
     }
 
+    private long[] bitboards = new long[PIECE_KINDS];
+    private long[] occupancy = new long[2];
+    private long occupied;
+    private long zobristKey;
+    private long pawnKey;
+    // Evaluation sums from PieceSquareTables, kept up to date like the Zobrist key
+    private int material;
+    private int midgamePlacement;
+    private int endgamePlacement;
+    private int phase;
+
+    public ChessBoard() {
+    }
+
     /**
      * Adds a chess piece to the chessboard
      *
@@ -25,7 +50,11 @@ public class ChessBoard implements Cloneable{
      * @param piece    the piece to add
      */
     public void addPiece(ChessPosition position, ChessPiece piece) {
-        board[position.getRow() - 1][position.getColumn() - 1] = piece;
+        int square = squareOf(position);
+        removePiece(square);
+        if (piece != null) {
+            putPiece(square, pieceIndex(piece.getTeamColor(), piece.getPieceType()));
+        }
     }
 
     /**
@@ -36,7 +65,8 @@ public class ChessBoard implements Cloneable{
      * position
      */
     public ChessPiece getPiece(ChessPosition position) {
-        return board[position.getRow() - 1][position.getColumn() - 1];
+        int index = pieceAt(squareOf(position));
+        return index == NO_PIECE ? null : PIECES[index];
     }
 
     /**
@@ -44,11 +74,15 @@ public class ChessBoard implements Cloneable{
      * (How the game of chess normally starts)
      */
     public void resetBoard() {
-        for (int r = 0; r < 8; r++) {
-            for (int c = 0; c < 8; c++) {
-                this.board[r][c] = null;
-            }
-        }
+        Arrays.fill(bitboards, 0L);
+        Arrays.fill(occupancy, 0L);
+        occupied = 0L;
+        zobristKey = 0L;
+        pawnKey = 0L;
+        material = 0;
+        midgamePlacement = 0;
+        endgamePlacement = 0;
+        phase = 0;
         // Initialize white pieces
         initializePieces(ChessGame.TeamColor.WHITE, 0, 1);
 
@@ -56,7 +90,7 @@ public class ChessBoard implements Cloneable{
         initializePieces(ChessGame.TeamColor.BLACK, 7, 6);
     }
     private void placePiece(ChessGame.TeamColor color, ChessPiece.PieceType pieceType, int row, int col) {
-        board[row][col] = new ChessPiece(color, pieceType);
+        putPiece(row * 8 + col, pieceIndex(color, pieceType));
     }
     private void initializePieces(ChessGame.TeamColor color, int mainRow, int pawnRow) {
         // Rooks
@@ -83,6 +117,320 @@ public class ChessBoard implements Cloneable{
         }
     }
 
+    /**
+     * Gets the Zobrist hash of the pieces on the board. It is updated as pieces are added,
+     * moved and removed, so reading it costs nothing. Side to move is not part of the board;
+     * see {@link ChessGame#getZobristKey()} for the key of the whole position.
+     *
+     * @return 64-bit hash of the piece placement
+     */
+    public long getZobristKey() {
+        return zobristKey;
+    }
+
+    /**
+     * Gets the Zobrist hash of just the pawns, for caching pawn structure evaluation. Pawns
+     * move far less often than pieces, so many positions in a search tree share one pawn key.
+     *
+     * @return 64-bit hash of the pawn placement of both colors
+     */
+    public long getPawnKey() {
+        return pawnKey;
+    }
+
+    /**
+     * @return the value of white's pieces minus black's, in centipawns
+     */
+    public int getMaterialBalance() {
+        return material;
+    }
+
+    /**
+     * Gets white's piece-square bonuses minus black's, blended from the middlegame to the
+     * endgame tables by {@link #getGamePhase()}. Like the material balance, it is updated as
+     * pieces move rather than computed when asked.
+     *
+     * @return the placement score in centipawns from white's point of view
+     */
+    public int getPlacementScore() {
+        int midgameWeight = Math.min(phase, PieceSquareTables.MAX_PHASE);
+        return (midgamePlacement * midgameWeight
+                + endgamePlacement * (PieceSquareTables.MAX_PHASE - midgameWeight)) / PieceSquareTables.MAX_PHASE;
+    }
+
+    /**
+     * @return how much non-pawn material is left, from 24 at the start of a game down to 0 with
+     * only kings and pawns; promotions can push it past 24
+     */
+    public int getGamePhase() {
+        return phase;
+    }
+
+    /**
+     * @return the squares holding pieces of the given color and type, as a bit mask with bit 0
+     * for a1 and bit 63 for h8
+     */
+    public long getPieces(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return bitboards[pieceIndex(color, type)];
+    }
+
+    /**
+     * Determines if any piece of the given color attacks a square
+     *
+     * @param square  the square to test
+     * @param byColor the attacking team
+     * @return True if a piece of that team could capture on the square
+     */
+    public boolean isSquareAttacked(ChessPosition square, ChessGame.TeamColor byColor) {
+        return isSquareAttacked(squareOf(square), byColor);
+    }
+
+    /**
+     * Gets the position of a team's king
+     *
+     * @param color the team whose king to find
+     * @return the king's position, or null if that team has no king on the board
+     */
+    public ChessPosition getKingPosition(ChessGame.TeamColor color) {
+        int square = kingSquare(color);
+        return square == Bitboards.NO_SQUARE ? null : positionOf(square);
+    }
+
+    /**
+     * Gets the piece on a square by its 0-63 index, as used by packed {@link Move} values
+     *
+     * @param square the square, counting a1 as 0 and h8 as 63
+     * @return Either the piece on the square, or null if it is empty
+     */
+    public ChessPiece getPiece(int square) {
+        int index = pieceAt(square);
+        return index == NO_PIECE ? null : PIECES[index];
+    }
+
+    /**
+     * @return how many pieces of the given color and type are on the board
+     */
+    public int countPieces(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return Long.bitCount(bitboards[pieceIndex(color, type)]);
+    }
+
+    /**
+     * Writes the piece placement field of a FEN string, from the eighth rank down, such as
+     * {@code rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR}
+     *
+     * @return the placement of every piece on the board
+     */
+    public String toFen() {
+        StringBuilder fen = new StringBuilder(72);
+        for (int row = 7; row >= 0; row--) {
+            int empty = 0;
+            for (int col = 0; col < 8; col++) {
+                int index = pieceAt(row * 8 + col);
+                if (index == NO_PIECE) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    fen.append(empty);
+                    empty = 0;
+                }
+                char letter = FEN_LETTERS.charAt(index % 6);
+                fen.append(index < 6 ? letter : Character.toLowerCase(letter));
+            }
+            if (empty > 0) {
+                fen.append(empty);
+            }
+            if (row > 0) {
+                fen.append('/');
+            }
+        }
+        return fen.toString();
+    }
+
+    /**
+     * Builds a board from the piece placement field of a FEN string
+     *
+     * @param placement eight ranks separated by {@code /}, from the eighth rank down
+     * @return the board the placement describes
+     * @throws IllegalArgumentException if the placement is malformed
+     */
+    public static ChessBoard fromFen(String placement) {
+        String[] ranks = placement.split("/", -1);
+        if (ranks.length != 8) {
+            throw new IllegalArgumentException("FEN placement needs 8 ranks: " + placement);
+        }
+        ChessBoard board = new ChessBoard();
+        for (int rank = 0; rank < 8; rank++) {
+            int row = 7 - rank;
+            int col = 0;
+            for (char c : ranks[rank].toCharArray()) {
+                if (c >= '1' && c <= '8') {
+                    col += c - '0';
+                    continue;
+                }
+                int type = FEN_LETTERS.indexOf(Character.toUpperCase(c));
+                if (type < 0 || col > 7) {
+                    throw new IllegalArgumentException("Bad FEN rank '" + ranks[rank] + "'");
+                }
+                board.putPiece(row * 8 + col++, Character.isUpperCase(c) ? type : 6 + type);
+            }
+            if (col != 8) {
+                throw new IllegalArgumentException("Bad FEN rank '" + ranks[rank] + "'");
+            }
+        }
+        return board;
+    }
+
+    boolean isSquareAttacked(int square, ChessGame.TeamColor byColor) {
+        return attackersOf(square, byColor, occupied) != 0;
+    }
+
+    /**
+     * Probes outward from a square for pieces of the given color that attack it: knight jumps,
+     * pawn diagonals, the adjacent king, and sliders along the rook and bishop rays.
+     *
+     * @param occupied the blockers to use for the sliding rays
+     * @return mask of the attacking pieces
+     */
+    long attackersOf(int square, ChessGame.TeamColor byColor, long occupied) {
+        int base = byColor.ordinal() * 6;
+        long queens = bitboards[base + ChessPiece.PieceType.QUEEN.ordinal()];
+        long rooksQueens = bitboards[base + ChessPiece.PieceType.ROOK.ordinal()] | queens;
+        long bishopsQueens = bitboards[base + ChessPiece.PieceType.BISHOP.ordinal()] | queens;
+
+        // A pawn of the attacking color attacks this square if one of ours on it would attack the pawn
+        long pawnSources = Bitboards.PAWN_ATTACKS[1 - byColor.ordinal()][square];
+        return (Bitboards.KNIGHT_ATTACKS[square] & bitboards[base + ChessPiece.PieceType.KNIGHT.ordinal()])
+                | (pawnSources & bitboards[base + ChessPiece.PieceType.PAWN.ordinal()])
+                | (Bitboards.KING_ATTACKS[square] & bitboards[base + ChessPiece.PieceType.KING.ordinal()])
+                | (Bitboards.rookAttacks(square, occupied) & rooksQueens)
+                | (Bitboards.bishopAttacks(square, occupied) & bishopsQueens);
+    }
+
+    /**
+     * The king bitboard is updated on every piece change, so this is a single bit scan.
+     *
+     * @return the square of the team's king, or {@link Bitboards#NO_SQUARE} if it has none
+     */
+    int kingSquare(ChessGame.TeamColor color) {
+        long kings = bitboards[pieceIndex(color, ChessPiece.PieceType.KING)];
+        return kings == 0 ? Bitboards.NO_SQUARE : Long.numberOfTrailingZeros(kings);
+    }
+
+    /**
+     * @return the 0-63 square index of a position, counting a1 as 0 and h8 as 63
+     * @throws IndexOutOfBoundsException if the position is off the board, rather than letting it
+     *                                   wrap around to another square
+     */
+    static int squareOf(ChessPosition position) {
+        int row = position.getRow();
+        int column = position.getColumn();
+        if (row < 1 || row > 8 || column < 1 || column > 8) {
+            throw new IndexOutOfBoundsException("Position is off the board: " + position);
+        }
+        return (row - 1) * 8 + (column - 1);
+    }
+
+    static ChessPosition positionOf(int square) {
+        return ChessPosition.ofSquare(square);
+    }
+
+    /**
+     * @return the bitboard slot used for pieces of the given color and type
+     */
+    static int pieceIndex(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return color.ordinal() * 6 + type.ordinal();
+    }
+
+    static ChessPiece pieceFor(int pieceIndex) {
+        return PIECES[pieceIndex];
+    }
+
+    /**
+     * @return the bitboard slot of the piece on a square, or {@link #NO_PIECE} if it is empty
+     */
+    int pieceAt(int square) {
+        long bit = 1L << square;
+        if ((occupied & bit) == 0) {
+            return NO_PIECE;
+        }
+        int first = (occupancy[0] & bit) != 0 ? 0 : 6;
+        for (int i = first; i < first + 6; i++) {
+            if ((bitboards[i] & bit) != 0) {
+                return i;
+            }
+        }
+        return NO_PIECE;
+    }
+
+    long pieces(int pieceIndex) {
+        return bitboards[pieceIndex];
+    }
+
+    long pieces(ChessGame.TeamColor color) {
+        return occupancy[color.ordinal()];
+    }
+
+    long occupied() {
+        return occupied;
+    }
+
+    /**
+     * Places a piece on an empty square
+     */
+    void putPiece(int square, int pieceIndex) {
+        long bit = 1L << square;
+        bitboards[pieceIndex] |= bit;
+        occupancy[pieceIndex / 6] |= bit;
+        occupied |= bit;
+        zobristKey ^= Zobrist.PIECE_SQUARE[pieceIndex][square];
+        if (pieceIndex % 6 == PAWN) {
+            pawnKey ^= Zobrist.PIECE_SQUARE[pieceIndex][square];
+        }
+        material += PieceSquareTables.MATERIAL[pieceIndex];
+        midgamePlacement += PieceSquareTables.MIDGAME[pieceIndex][square];
+        endgamePlacement += PieceSquareTables.ENDGAME[pieceIndex][square];
+        phase += PieceSquareTables.PHASE[pieceIndex];
+    }
+
+    /**
+     * Clears a square, returning the slot of the piece that was there
+     */
+    int removePiece(int square) {
+        int index = pieceAt(square);
+        if (index != NO_PIECE) {
+            long bit = 1L << square;
+            bitboards[index] &= ~bit;
+            occupancy[index / 6] &= ~bit;
+            occupied &= ~bit;
+            zobristKey ^= Zobrist.PIECE_SQUARE[index][square];
+            if (index % 6 == PAWN) {
+                pawnKey ^= Zobrist.PIECE_SQUARE[index][square];
+            }
+            material -= PieceSquareTables.MATERIAL[index];
+            midgamePlacement -= PieceSquareTables.MIDGAME[index][square];
+            endgamePlacement -= PieceSquareTables.ENDGAME[index][square];
+            phase -= PieceSquareTables.PHASE[index];
+        }
+        return index;
+    }
+
+    /**
+     * Overwrites this board with the contents of another without allocating
+     */
+    void copyFrom(ChessBoard other) {
+        System.arraycopy(other.bitboards, 0, bitboards, 0, PIECE_KINDS);
+        occupancy[0] = other.occupancy[0];
+        occupancy[1] = other.occupancy[1];
+        occupied = other.occupied;
+        zobristKey = other.zobristKey;
+        pawnKey = other.pawnKey;
+        material = other.material;
+        midgamePlacement = other.midgamePlacement;
+        endgamePlacement = other.endgamePlacement;
+        phase = other.phase;
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (this == obj) {
@@ -93,36 +441,25 @@ public class ChessBoard implements Cloneable{
         }
 
         ChessBoard otherBoard = (ChessBoard) obj;
-        return Arrays.deepEquals(this.board, otherBoard.board);
+        return Arrays.equals(this.bitboards, otherBoard.bitboards);
     }
 
     @Override
     public int hashCode() {
-        return Arrays.deepHashCode(this.board);
+        return Long.hashCode(zobristKey);
     }
 
     @Override
     public ChessBoard clone() {
-        ChessBoard newBoard = null;
         try {
-            newBoard = (ChessBoard) super.clone();
-
-            // Clone the individual ChessPiece objects
-            newBoard.board = new ChessPiece[8][8];
-            for (int i = 0; i < 8; i++) {
-                for (int j = 0; j < 8; j++) {
-                    if (this.board[i][j] != null) {
-                        newBoard.board[i][j] = this.board[i][j].clone();
-                    }
-                }
-            }
-
+            ChessBoard newBoard = (ChessBoard) super.clone();
+            newBoard.bitboards = this.bitboards.clone();
+            newBoard.occupancy = this.occupancy.clone();
             return newBoard;
-
         } catch (CloneNotSupportedException e) {
             throw new RuntimeException(e);
         }
     }
 
 
-}
\ No newline at end of file
+}
@@ -2,23 +2,52 @@ package chess;
 
 import java.util.*;
 
-import com.google.gson.Gson;
+import com.google.gson.annotations.JsonAdapter;
 
 
 /**
  * For a class that can manage a chess game, making moves on a board
  * <p>
+ * Games serialize to JSON as their FEN string; see {@link ChessGameJsonAdapter}.
+ * <p>
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
  */
+@JsonAdapter(ChessGameJsonAdapter.class)
 public class ChessGame {
     private TeamColor color;
     private ChessBoard board;
+    private int state;
+    private final transient MoveUndo scratchUndo = new MoveUndo();
+    private final transient MoveGenerator generator = new MoveGenerator();
+    private final transient PositionMemo[] memos = {
+            new PositionMemo(TeamColor.WHITE), new PositionMemo(TeamColor.BLACK)};
+    /** Keys of the positions before the current one, oldest first, for spotting repetitions */
+    private transient long[] history = new long[64];
+    private transient int historySize;
+
+    private static final TeamColor[] TEAMS = TeamColor.values();
+    /** a1, c1, ..., b2, d2, ...: the squares a dark-squared bishop can reach */
+    private static final long DARK_SQUARES = 0xAA55AA55AA55AA55L;
 
     public ChessGame() {
         this.color = TeamColor.WHITE;
         this.board = new ChessBoard();
         board.resetBoard();
+        this.state = GameState.INITIAL;
+    }
+
+    /**
+     * Copies another game, so that it can be searched or analyzed without touching the original
+     *
+     * @param other the game to copy
+     */
+    public ChessGame(ChessGame other) {
+        this.color = other.color;
+        this.board = other.board.clone();
+        this.state = other.state;
+        this.history = Arrays.copyOf(other.history, other.history.length);
+        this.historySize = other.historySize;
     }
 
     /**
@@ -35,6 +64,39 @@ public class ChessGame {
      */
     public void setTeamTurn(TeamColor team) {
         this.color = team;
+        forgetMemos();
+        historySize = 0;
+    }
+
+    /**
+     * @return the packed {@link GameState}: castling rights, en passant file and move clocks
+     */
+    public int getGameState() {
+        return state;
+    }
+
+    /**
+     * Replaces the castling rights, en passant file and move clocks. Like {@link #setBoard} and
+     * {@link #setTeamTurn}, this starts the position history over.
+     *
+     * @param state a packed {@link GameState}
+     */
+    public void setGameState(int state) {
+        this.state = state;
+        forgetMemos();
+        historySize = 0;
+    }
+
+    /**
+     * Gets the Zobrist hash of the position: the board's piece placement, whose turn it is, the
+     * castling rights and any en passant file. Positions that are the same regardless of how
+     * they were reached share a key.
+     *
+     * @return 64-bit hash of the position
+     */
+    public long getZobristKey() {
+        long key = board.getZobristKey() ^ Zobrist.of(state);
+        return color == TeamColor.BLACK ? key ^ Zobrist.BLACK_TO_MOVE : key;
     }
 
     /**
@@ -53,36 +115,41 @@ public class ChessGame {
      * startPosition
      */
     public Collection<ChessMove> validMoves(ChessPosition startPosition) {
-        ChessBoard board = getBoard();
         ChessPiece piece = board.getPiece(startPosition);
 
         if (piece == null) {
             return Collections.emptyList(); // Return an empty list if piece is null
         }
 
-        ChessBoard boardCopy = board.clone();
-        Collection<ChessMove> possibleMoves = piece.pieceMoves(boardCopy, startPosition);
-        TeamColor team = piece.getTeamColor();
-
-        List<ChessMove> validMoves = new ArrayList<>();
-        for (ChessMove move : possibleMoves) {
-            // Check if the move does not leave the team in check
-            if (!badMove(boardCopy, move, team)) {
-                validMoves.add(move);
+        MoveList moves = memoFor(piece.getTeamColor()).legalMoves();
+        int from = ChessBoard.squareOf(startPosition);
+        List<ChessMove> pieceMoves = new ArrayList<>();
+        for (int i = 0; i < moves.size(); i++) {
+            if (Move.from(moves.get(i)) == from) {
+                pieceMoves.add(Move.toChessMove(moves.get(i)));
             }
         }
-        return validMoves;
+        return pieceMoves;
     }
 
-    private boolean badMove(ChessBoard board, ChessMove move, TeamColor team) {
-        ChessBoard boardCopy = board.clone();
-        ChessPosition startPos = move.getStartPosition();
-        ChessPosition endPos = move.getEndPosition();
-        ChessPiece piece = boardCopy.getPiece(startPos);
-        boardCopy.addPiece(endPos, piece);
-        boardCopy.addPiece(startPos, null);
+    /**
+     * Fills a move list with every legal move for the team whose turn it is
+     *
+     * @param moves list to fill; it is cleared first
+     */
+    public void legalMoves(MoveList moves) {
+        moves.clear();
+        generator.generateLegalMoves(board, color, state, -1L, moves);
+    }
 
-        return isInCheck(team, boardCopy);
+    /**
+     * Fills a move list with the legal captures and promotions for the team whose turn it is
+     *
+     * @param moves list to fill; it is cleared first
+     */
+    public void legalCaptures(MoveList moves) {
+        moves.clear();
+        generator.generateLegalCaptures(board, color, state, moves);
     }
 
     /**
@@ -93,21 +160,221 @@ public class ChessGame {
      */
     public void makeMove(ChessMove move) throws InvalidMoveException {
         ChessPosition startPos = move.getStartPosition();
+        // Checked before packing, which would otherwise alias an off-board square to a real one
+        if (!isOnBoard(startPos) || !isOnBoard(move.getEndPosition())) {
+            throw new InvalidMoveException();
+        }
         ChessPiece piece = board.getPiece(startPos);
 
-        if (piece == null || !piece.getTeamColor().equals(getTeamTurn()) || !validMoves(startPos).contains(move)) {
+        if (piece == null || !piece.getTeamColor().equals(getTeamTurn())) {
             throw new InvalidMoveException();
         }
 
-        ChessPosition endPos = move.getEndPosition();
-        ChessPiece.PieceType promotion = move.getPromotionPiece();
+        int packed = Move.fromChessMove(move);
+        if (!memoFor(color).legalMoves().contains(packed)) {
+            throw new InvalidMoveException();
+        }
+        makeMove(packed, scratchUndo);
+    }
+
+    private static boolean isOnBoard(ChessPosition position) {
+        return position != null
+                && position.getRow() >= 1 && position.getRow() <= 8
+                && position.getColumn() >= 1 && position.getColumn() <= 8;
+    }
 
+    /**
+     * Applies a move in place without checking that it is legal, recording what it changed
+     * so it can be reverted with {@link #unmakeMove(MoveUndo)}. The turn passes to the other team.
+     * A king moving two squares castles, and a pawn moving diagonally onto an empty square
+     * captures en passant.
+     *
+     * @param move the move to apply; its start square must hold a piece
+     * @param undo record to fill in, reused by the caller between moves
+     */
+    public void makeMove(ChessMove move, MoveUndo undo) {
+        makeMove(Move.fromChessMove(move), undo);
+    }
+
+    /**
+     * Applies a packed {@link Move} in place without checking that it is legal.
+     *
+     * @see #makeMove(ChessMove, MoveUndo)
+     */
+    public void makeMove(int move, MoveUndo undo) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        if (historySize == history.length) {
+            history = Arrays.copyOf(history, historySize * 2);
+        }
+        long key = getZobristKey();
+        int moved = board.removePiece(from);
+        if (moved == ChessBoard.NO_PIECE) {
+            throw new IllegalArgumentException("No piece at " + ChessBoard.positionOf(from));
+        }
+        history[historySize++] = key;
+
+        boolean pawn = moved % 6 == ChessPiece.PieceType.PAWN.ordinal();
+        int capturedSquare = to;
+        if (pawn && (from & 7) != (to & 7) && board.pieceAt(to) == ChessBoard.NO_PIECE) {
+            // En passant: the captured pawn sits beside the start square
+            capturedSquare = (from & ~7) | (to & 7);
+        }
+
+        undo.move = move;
+        undo.movedPiece = moved;
+        undo.capturedSquare = capturedSquare;
+        undo.capturedPiece = board.removePiece(capturedSquare);
+        undo.priorTurn = color;
+        undo.priorState = state;
+
+        int placed = moved;
+        ChessPiece.PieceType promotion = Move.promotion(move);
         if (promotion != null) {
-            piece = new ChessPiece(piece.getTeamColor(), promotion);
+            placed = ChessBoard.pieceIndex(ChessBoard.pieceFor(moved).getTeamColor(), promotion);
+        }
+        board.putPiece(to, placed);
+        if (isCastle(moved, from, to)) {
+            board.putPiece((from + to) >>> 1, board.removePiece(rookHome(from, to)));
+        }
+
+        int enPassantFile = GameState.NO_EN_PASSANT;
+        if (pawn && Math.abs(to - from) == 16) {
+            // Only record the file when an enemy pawn is placed to take it, so that positions
+            // which differ only by an unusable en passant square hash alike
+            int enemyPawns = ChessBoard.pieceIndex(opponentOf(color), ChessPiece.PieceType.PAWN);
+            long takers = Bitboards.PAWN_ATTACKS[color.ordinal()][(from + to) >>> 1] & board.pieces(enemyPawns);
+            if (takers != 0) {
+                enPassantFile = to & 7;
+            }
+        }
+        int halfmoveClock = pawn || undo.capturedPiece != ChessBoard.NO_PIECE ? 0
+                : GameState.halfmoveClock(state) + 1;
+        int fullmoveNumber = GameState.fullmoveNumber(state) + (color == TeamColor.BLACK ? 1 : 0);
+        state = GameState.of(GameState.castlingRightsAfter(GameState.castlingRights(state), from, to),
+                enPassantFile, halfmoveClock, fullmoveNumber);
+        color = opponentOf(color);
+        forgetMemos();
+    }
+
+    private static boolean isCastle(int movedPiece, int from, int to) {
+        return movedPiece % 6 == ChessPiece.PieceType.KING.ordinal() && Math.abs(to - from) == 2;
+    }
+
+    /**
+     * @return the corner square of the rook that castles with a king moving from {@code from}
+     * to {@code to}
+     */
+    private static int rookHome(int from, int to) {
+        return to > from ? from + 3 : from - 4;
+    }
+
+    /**
+     * Reverts the move recorded in an undo record. Moves must be unmade in the reverse
+     * order they were made.
+     *
+     * @param undo the record filled in by {@link #makeMove(ChessMove, MoveUndo)}
+     */
+    public void unmakeMove(MoveUndo undo) {
+        int from = Move.from(undo.move);
+        int to = Move.to(undo.move);
+        board.removePiece(to);
+        board.putPiece(from, undo.movedPiece);
+        if (undo.capturedPiece != ChessBoard.NO_PIECE) {
+            board.putPiece(undo.capturedSquare, undo.capturedPiece);
+        }
+        if (isCastle(undo.movedPiece, from, to)) {
+            board.putPiece(rookHome(from, to), board.removePiece((from + to) >>> 1));
+        }
+        color = undo.priorTurn;
+        state = undo.priorState;
+        forgetMemos();
+        if (historySize > 0) {
+            historySize--;
+        }
+    }
+
+    /**
+     * Determines if the current position, with the same team to move, castling rights and en
+     * passant file, has come up before since the last capture or pawn move. A search can score
+     * this as a draw, since whatever was good enough to repeat once can be repeated again.
+     *
+     * @return True if the position has occurred at least once before
+     */
+    public boolean isRepetition() {
+        return occurrencesBefore(1) >= 1;
+    }
+
+    /**
+     * @return True if the current position has occurred at least twice before, making three times
+     */
+    public boolean isDrawByRepetition() {
+        return occurrencesBefore(2) >= 2;
+    }
+
+    /**
+     * Counts earlier occurrences of the current position, up to a limit. A capture or pawn move
+     * can never be undone, so only the last halfmove-clock plies can repeat, and of those only
+     * every second one has the same team to move.
+     */
+    private int occurrencesBefore(int limit) {
+        long key = getZobristKey();
+        int oldest = Math.max(0, historySize - GameState.halfmoveClock(state));
+        int found = 0;
+        for (int i = historySize - 2; i >= oldest && found < limit; i -= 2) {
+            if (history[i] == key) {
+                found++;
+            }
         }
-        board.addPiece(endPos, piece);
-        board.addPiece(startPos, null);
-        setTeamTurn(getTeamTurn() == TeamColor.WHITE ? TeamColor.BLACK : TeamColor.WHITE);
+        return found;
+    }
+
+    /**
+     * Determines if fifty moves by each team have passed without a capture or pawn move. A
+     * checkmate delivered on the last of them still counts as a checkmate.
+     *
+     * @return True if the game is drawn by the fifty-move rule
+     */
+    public boolean isDrawByFiftyMoveRule() {
+        return GameState.halfmoveClock(state) >= GameState.FIFTY_MOVE_PLIES && !isInCheckmate(color);
+    }
+
+    /**
+     * Determines if neither team has the material to checkmate by any series of moves: bare kings,
+     * a lone knight or bishop against a bare king, or only bishops that all stand on squares of
+     * one color
+     *
+     * @return True if the game is drawn for lack of mating material
+     */
+    public boolean isDrawByInsufficientMaterial() {
+        long heavy = 0;
+        long knights = 0;
+        long bishops = 0;
+        for (TeamColor team : TEAMS) {
+            heavy |= board.getPieces(team, ChessPiece.PieceType.PAWN)
+                    | board.getPieces(team, ChessPiece.PieceType.ROOK)
+                    | board.getPieces(team, ChessPiece.PieceType.QUEEN);
+            knights |= board.getPieces(team, ChessPiece.PieceType.KNIGHT);
+            bishops |= board.getPieces(team, ChessPiece.PieceType.BISHOP);
+        }
+        if (heavy != 0) {
+            return false;
+        }
+        if (Long.bitCount(knights | bishops) <= 1) {
+            return true;
+        }
+        return knights == 0 && ((bishops & DARK_SQUARES) == 0 || (bishops & ~DARK_SQUARES) == 0);
+    }
+
+    /**
+     * Determines if the game is drawn by repetition, the fifty-move rule or insufficient material.
+     * Stalemate is reported separately by {@link #isInStalemate}. Each check is cheap enough to
+     * run after every move.
+     *
+     * @return True if the game is drawn under one of those rules
+     */
+    public boolean isDraw() {
+        return isDrawByInsufficientMaterial() || isDrawByRepetition() || isDrawByFiftyMoveRule();
     }
 
     /**
@@ -117,39 +384,16 @@ public class ChessGame {
      * @return True if the specified team is in check
      */
     public boolean isInCheck(TeamColor teamColor) {
-        return isInCheck(teamColor, board);
+        return memoFor(teamColor).inCheck();
     }
 
     public boolean isInCheck(TeamColor teamColor, ChessBoard board) {
-        ChessPosition kingPosition = findKing(teamColor, board);
-        Set<ChessPosition> enemyMoves = getOpponentMoves(teamColor, board);
-        return enemyMoves.contains(kingPosition);
-    }
-
-    public Set<ChessPosition> getOpponentMoves(TeamColor teamColor, ChessBoard board) {
-        Set<ChessPosition> enemyMoves = new HashSet<>();
-        for (int row = 1; row <= 8; row++) {
-            for (int col = 1; col <= 8; col++) {
-                ChessPiece piece = board.getPiece(new ChessPosition(row, col));
-                if (piece != null && piece.getTeamColor() != teamColor) {
-                    Collection<ChessMove> moves = piece.pieceMoves(board, new ChessPosition(row, col));
-                    moves.forEach(move -> enemyMoves.add(move.getEndPosition()));
-                }
-            }
-        }
-        return enemyMoves;
+        int kingSquare = board.kingSquare(teamColor);
+        return kingSquare != Bitboards.NO_SQUARE && board.isSquareAttacked(kingSquare, opponentOf(teamColor));
     }
 
-    private ChessPosition findKing(TeamColor teamColor, ChessBoard board) {
-        for (int row = 1; row <= 8; row++) {
-            for (int col = 1; col <= 8; col++) {
-                ChessPiece piece = board.getPiece(new ChessPosition(row, col));
-                if (piece != null && piece.getPieceType() == ChessPiece.PieceType.KING && piece.getTeamColor() == teamColor) {
-                    return new ChessPosition(row, col);
-                }
-            }
-        }
-        return null;
+    static TeamColor opponentOf(TeamColor teamColor) {
+        return teamColor == TeamColor.WHITE ? TeamColor.BLACK : TeamColor.WHITE;
     }
 
     /**
@@ -159,11 +403,8 @@ public class ChessGame {
      * @return True if the specified team is in checkmate
      */
     public boolean isInCheckmate(TeamColor teamColor) {
-        if (!isInCheck(teamColor, board)) {
-            return false;
-        }
-
-        return isMoveAvailable(teamColor);
+        PositionMemo memo = memoFor(teamColor);
+        return memo.inCheck() && memo.legalMoves().isEmpty();
     }
 
 
@@ -175,34 +416,91 @@ public class ChessGame {
      * @return True if the specified team is in stalemate, otherwise false
      */
     public boolean isInStalemate(TeamColor teamColor) {
-        if (isInCheck(teamColor, board)) {
-            return false;
+        PositionMemo memo = memoFor(teamColor);
+        return !memo.inCheck() && memo.legalMoves().isEmpty();
+    }
+
+    /**
+     * @return the game state as it applies to a team's moves; en passant is only open to the
+     * team whose turn it is
+     */
+    private int stateFor(TeamColor teamColor) {
+        return teamColor == color ? state : GameState.withEnPassantFile(state, GameState.NO_EN_PASSANT);
+    }
+
+    /**
+     * Gets the remembered answers about a team in the current position, starting them over if
+     * the position has changed since they were worked out. Besides the explicit resets when a
+     * move is made or the board or turn is replaced, the position's key is compared, so that
+     * pieces added or removed through {@link #getBoard()} are noticed too.
+     */
+    private PositionMemo memoFor(TeamColor teamColor) {
+        PositionMemo memo = memos[teamColor.ordinal()];
+        long key = getZobristKey();
+        if (!memo.valid || memo.key != key) {
+            memo.reset(key);
         }
-        return isMoveAvailable(teamColor);
+        return memo;
     }
 
-    private boolean isMoveAvailable(TeamColor teamColor) {
-        for (int row = 1; row <= 8; row++) {
-            for (int col = 1; col <= 8; col++) {
-                ChessPiece piece = board.getPiece(new ChessPosition(row, col));
-                if (piece != null && piece.getTeamColor() == teamColor) {
-                    Collection<ChessMove> moves = validMoves(new ChessPosition(row, col));
-                    if (!moves.isEmpty()) {
-                        return false;
-                    }
-                }
+    private void forgetMemos() {
+        memos[0].valid = false;
+        memos[1].valid = false;
+    }
+
+    /**
+     * One team's legal moves and check status in one position, each worked out the first time
+     * it is asked for. Repeated queries about an unchanged position, such as the client asking
+     * for each selected piece's moves, cost a key comparison instead of a move generation.
+     */
+    private final class PositionMemo {
+        private final TeamColor team;
+        private final MoveList moves = new MoveList();
+        private long key;
+        private boolean valid;
+        private boolean movesKnown;
+        private Boolean inCheck;
+
+        private PositionMemo(TeamColor team) {
+            this.team = team;
+        }
+
+        private void reset(long key) {
+            this.key = key;
+            this.valid = true;
+            this.movesKnown = false;
+            this.inCheck = null;
+        }
+
+        private MoveList legalMoves() {
+            if (!movesKnown) {
+                moves.clear();
+                generator.generateLegalMoves(board, team, stateFor(team), -1L, moves);
+                movesKnown = true;
             }
+            return moves;
+        }
+
+        private boolean inCheck() {
+            if (inCheck == null) {
+                inCheck = isInCheck(team, board);
+            }
+            return inCheck;
         }
-        return true;
     }
 
     /**
-     * Sets this game's chessboard with a given board
+     * Sets this game's chessboard with a given board. Castling rights are taken from which kings
+     * and rooks are still on their home squares, and the move clocks and position history start
+     * over.
      *
      * @param board the new board to use
      */
     public void setBoard(ChessBoard board) {
         this.board = board;
+        this.state = GameState.of(GameState.inferCastlingRights(board), GameState.NO_EN_PASSANT, 0, 1);
+        forgetMemos();
+        historySize = 0;
     }
 
     /**
@@ -214,7 +512,113 @@ public class ChessGame {
         return this.board;
     }
 
+    /**
+     * Writes the game as a FEN string: piece placement, side to move, castling rights, en passant
+     * square, halfmove clock and fullmove number, such as
+     * {@code rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1}
+     *
+     * @return the position in Forsyth-Edwards Notation
+     */
+    public String toFen() {
+        StringBuilder fen = new StringBuilder(board.toFen());
+        fen.append(color == TeamColor.WHITE ? " w " : " b ");
+
+        int rights = GameState.castlingRights(state);
+        if (rights == 0) {
+            fen.append('-');
+        }
+        if ((rights & GameState.WHITE_KINGSIDE) != 0) {
+            fen.append('K');
+        }
+        if ((rights & GameState.WHITE_QUEENSIDE) != 0) {
+            fen.append('Q');
+        }
+        if ((rights & GameState.BLACK_KINGSIDE) != 0) {
+            fen.append('k');
+        }
+        if ((rights & GameState.BLACK_QUEENSIDE) != 0) {
+            fen.append('q');
+        }
+
+        int enPassantFile = GameState.enPassantFile(state);
+        if (enPassantFile == GameState.NO_EN_PASSANT) {
+            fen.append(" -");
+        } else {
+            fen.append(' ').append((char) ('a' + enPassantFile)).append(color == TeamColor.WHITE ? '6' : '3');
+        }
+        return fen.append(' ').append(GameState.halfmoveClock(state))
+                .append(' ').append(GameState.fullmoveNumber(state)).toString();
+    }
+
+    /**
+     * Sets up a game from a FEN string. Fields after the piece placement may be left off, in
+     * which case white moves, nobody may castle and the clocks start over. Castling rights whose
+     * king or rook is not on its home square, and en passant squares no pawn can capture on, are
+     * dropped so that equal positions always produce equal strings and hashes.
+     *
+     * @param fen the position in Forsyth-Edwards Notation
+     * @return a game in that position
+     * @throws IllegalArgumentException if the string is malformed
+     */
+    public static ChessGame fromFen(String fen) {
+        String[] fields = fen.trim().split("\\s+");
+        if (fields.length > 6) {
+            throw new IllegalArgumentException("Too many FEN fields: " + fen);
+        }
+        ChessBoard board = ChessBoard.fromFen(fields[0]);
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+
+        String side = fields.length > 1 ? fields[1] : "w";
+        if (!side.equals("w") && !side.equals("b")) {
+            throw new IllegalArgumentException("Bad FEN side to move '" + side + "'");
+        }
+        game.setTeamTurn(side.equals("w") ? TeamColor.WHITE : TeamColor.BLACK);
+
+        int rights = 0;
+        String castling = fields.length > 2 ? fields[2] : "-";
+        if (!castling.equals("-")) {
+            for (char c : castling.toCharArray()) {
+                rights |= switch (c) {
+                    case 'K' -> GameState.WHITE_KINGSIDE;
+                    case 'Q' -> GameState.WHITE_QUEENSIDE;
+                    case 'k' -> GameState.BLACK_KINGSIDE;
+                    case 'q' -> GameState.BLACK_QUEENSIDE;
+                    default -> throw new IllegalArgumentException("Bad FEN castling rights '" + castling + "'");
+                };
+            }
+        }
+        rights &= GameState.inferCastlingRights(board);
+
+        int enPassantFile = GameState.NO_EN_PASSANT;
+        String enPassant = fields.length > 3 ? fields[3] : "-";
+        if (!enPassant.equals("-")) {
+            char rank = game.color == TeamColor.WHITE ? '6' : '3';
+            if (enPassant.length() != 2 || enPassant.charAt(0) < 'a' || enPassant.charAt(0) > 'h'
+                    || enPassant.charAt(1) != rank) {
+                throw new IllegalArgumentException("Bad FEN en passant square '" + enPassant + "'");
+            }
+            int target = (rank - '1') * 8 + (enPassant.charAt(0) - 'a');
+            long takers = board.pieces(ChessBoard.pieceIndex(game.color, ChessPiece.PieceType.PAWN));
+            if ((Bitboards.PAWN_ATTACKS[opponentOf(game.color).ordinal()][target] & takers) != 0) {
+                enPassantFile = target & 7;
+            }
+        }
+
+        try {
+            int halfmoveClock = fields.length > 4 ? Integer.parseInt(fields[4]) : 0;
+            int fullmoveNumber = fields.length > 5 ? Integer.parseInt(fields[5]) : 1;
+            if (halfmoveClock < 0 || fullmoveNumber < 1) {
+                throw new IllegalArgumentException("Bad FEN move counters: " + fen);
+            }
+            game.setGameState(GameState.of(rights, enPassantFile, halfmoveClock, fullmoveNumber));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Bad FEN move counters: " + fen, e);
+        }
+        return game;
+    }
+
     public String toString() {
-        return new Gson().toJson(this);
+        return toFen();
     }
 }
\ No newline at end of file
@@ -0,0 +1,104 @@
+package chess;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Serializes a {@link ChessGame} as its FEN string, around 60 bytes, instead of the reflective
+ * dump of its board. Any Gson instance picks this up through the annotation on the class, so
+ * the database and the HTTP API share the format without registering anything.
+ * <p>
+ * Games stored before the switch are JSON objects holding the turn and the board's old 8x8 piece
+ * grid, {@code {"color":"WHITE","board":{"board":[[{"pieceColor":..,"pieceType":..},..],..]}}},
+ * with the first row being rank 1. Those are read by hand, since the board no longer has that
+ * grid for Gson to fill in; castling rights are inferred from where the kings and rooks stand.
+ */
+final class ChessGameJsonAdapter implements TypeAdapterFactory {
+
+    @Override
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        if (type.getRawType() != ChessGame.class) {
+            return null;
+        }
+        TypeAdapter<ChessGame> adapter = new TypeAdapter<>() {
+            @Override
+            public void write(JsonWriter out, ChessGame game) throws IOException {
+                if (game == null) {
+                    out.nullValue();
+                } else {
+                    out.value(game.toFen());
+                }
+            }
+
+            @Override
+            public ChessGame read(JsonReader in) throws IOException {
+                JsonToken token = in.peek();
+                if (token == JsonToken.NULL) {
+                    in.nextNull();
+                    return null;
+                }
+                return token == JsonToken.STRING ? ChessGame.fromFen(in.nextString()) : readLegacy(in);
+            }
+        };
+        @SuppressWarnings("unchecked")
+        TypeAdapter<T> result = (TypeAdapter<T>) adapter;
+        return result;
+    }
+
+    private static ChessGame readLegacy(JsonReader in) {
+        JsonObject object = JsonParser.parseReader(in).getAsJsonObject();
+        JsonElement boardObject = object.get("board");
+        if (boardObject == null || !boardObject.isJsonObject() || !boardObject.getAsJsonObject().has("board")) {
+            throw new JsonParseException("Stored game has no piece grid: " + object);
+        }
+        JsonArray rows = boardObject.getAsJsonObject().getAsJsonArray("board");
+        if (rows.size() != 8) {
+            throw new JsonParseException("Stored board has " + rows.size() + " rows");
+        }
+
+        ChessBoard board = new ChessBoard();
+        for (int row = 0; row < 8; row++) {
+            JsonArray squares = rows.get(row).getAsJsonArray();
+            if (squares.size() != 8) {
+                throw new JsonParseException("Stored board row " + (row + 1) + " has " + squares.size() + " squares");
+            }
+            for (int column = 0; column < 8; column++) {
+                JsonElement square = squares.get(column);
+                if (square.isJsonNull()) {
+                    continue;
+                }
+                JsonObject piece = square.getAsJsonObject();
+                board.addPiece(ChessPosition.of(row + 1, column + 1), new ChessPiece(
+                        enumOf(ChessGame.TeamColor.class, piece.get("pieceColor")),
+                        enumOf(ChessPiece.PieceType.class, piece.get("pieceType"))));
+            }
+        }
+
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+        JsonElement color = object.get("color");
+        game.setTeamTurn(color == null || color.isJsonNull()
+                ? ChessGame.TeamColor.WHITE : enumOf(ChessGame.TeamColor.class, color));
+        return game;
+    }
+
+    private static <E extends Enum<E>> E enumOf(Class<E> type, JsonElement value) {
+        try {
+            return Enum.valueOf(type, value.getAsString());
+        } catch (RuntimeException e) {
+            throw new JsonParseException("Bad " + type.getSimpleName() + " in stored game: " + value, e);
+        }
+    }
+}
@@ -68,4 +68,55 @@ public class ChessMove {
         return Objects.hash(startPosition, endPosition, promotionPiece);
     }
 
+    /**
+     * @return the move in coordinate notation, such as {@code e2e4} or {@code e7e8q}
+     */
+    @Override
+    public String toString() {
+        String text = squareName(startPosition) + squareName(endPosition);
+        if (promotionPiece == null) {
+            return text;
+        }
+        char promotion = promotionPiece == ChessPiece.PieceType.KNIGHT ? 'n'
+                : Character.toLowerCase(promotionPiece.name().charAt(0));
+        return text + promotion;
+    }
+
+    private static String squareName(ChessPosition position) {
+        return "" + (char) ('a' + position.getColumn() - 1) + position.getRow();
+    }
+
+    /**
+     * Reads a move written by {@link #toString()}
+     *
+     * @param text the move in coordinate notation, such as {@code e2e4} or {@code e7e8q}
+     * @return the move
+     * @throws IllegalArgumentException if the text is not a move in coordinate notation
+     */
+    public static ChessMove parse(String text) {
+        if (text.length() != 4 && text.length() != 5) {
+            throw new IllegalArgumentException("Bad move '" + text + "'");
+        }
+        ChessPiece.PieceType promotion = null;
+        if (text.length() == 5) {
+            promotion = switch (text.charAt(4)) {
+                case 'q' -> ChessPiece.PieceType.QUEEN;
+                case 'r' -> ChessPiece.PieceType.ROOK;
+                case 'b' -> ChessPiece.PieceType.BISHOP;
+                case 'n' -> ChessPiece.PieceType.KNIGHT;
+                default -> throw new IllegalArgumentException("Bad promotion in move '" + text + "'");
+            };
+        }
+        return new ChessMove(parseSquare(text, 0), parseSquare(text, 2), promotion);
+    }
+
+    private static ChessPosition parseSquare(String text, int offset) {
+        char file = text.charAt(offset);
+        char rank = text.charAt(offset + 1);
+        if (file < 'a' || file > 'h' || rank < '1' || rank > '8') {
+            throw new IllegalArgumentException("Bad square in move '" + text + "'");
+        }
+        return ChessPosition.of(rank - '0', file - 'a' + 1);
+    }
+
 }
\ No newline at end of file
@@ -13,6 +13,9 @@ import chess.ChessGame.TeamColor;
  * signature of the existing methods.
  */
 public class ChessPiece implements Cloneable {
+    private static final ThreadLocal<MoveGenerator> GENERATOR = ThreadLocal.withInitial(MoveGenerator::new);
+    private static final ThreadLocal<MoveList> SCRATCH_MOVES = ThreadLocal.withInitial(MoveList::new);
+
     private final TeamColor pieceColor;
     private final PieceType pieceType;
 
@@ -55,182 +58,17 @@ public class ChessPiece implements Cloneable {
      * @return Collection of valid moves
      */
     public Collection<ChessMove> pieceMoves(chess.ChessBoard board, ChessPosition myPosition) {
-
-        Collection<ChessMove> validMoves = new ArrayList<>();
         ChessPiece currentPiece = board.getPiece(myPosition);
 
         if (currentPiece == null) {
-            return validMoves;
-        }
-
-        switch (currentPiece.getPieceType()) {
-            case PAWN:
-                validMoves.addAll(getPawnMoves(board, myPosition, currentPiece.getTeamColor()));
-                break;
-            case BISHOP:
-                validMoves.addAll(getDirectionalMoves(board, myPosition, currentPiece.getTeamColor(),
-                        1, 1, -1, -1, 1, -1, -1, 1));
-                break;
-            case ROOK:
-                validMoves.addAll(getDirectionalMoves(board, myPosition, currentPiece.getTeamColor(),
-                        1, 0, -1, 0, 0, 1, 0, -1));
-                break;
-            case QUEEN:
-                validMoves.addAll(getDirectionalMoves(board, myPosition, currentPiece.getTeamColor(),
-                        1, 1, -1, -1, 1, -1, -1, 1, 1, 0, -1, 0, 0, 1, 0, -1));
-                break;
-            case KNIGHT:
-                validMoves.addAll(getKnightMoves(board, myPosition, currentPiece.getTeamColor()));
-                break;
-            case KING:
-                validMoves.addAll(getKingMoves(board, myPosition, currentPiece.getTeamColor()));
-                break;
-        }
-
-        return validMoves;
-    }
-
-    private Collection<ChessMove> getPawnMoves(chess.ChessBoard board, ChessPosition position, ChessGame.TeamColor teamColor) {
-        Collection<ChessMove> pawnMoves = new ArrayList<>();
-        int forwardRow = (teamColor == ChessGame.TeamColor.WHITE) ? position.getRow() + 1 : position.getRow() - 1;
-        int currentCol = position.getColumn();
-
-        //checks if Pawn can attack an Opponent piece
-        checkPawnAttack(board, position, teamColor, pawnMoves, forwardRow, currentCol + 1);
-        checkPawnAttack(board, position, teamColor, pawnMoves, forwardRow, currentCol - 1);
-
-        // Move forward
-        if (isValidPosition(forwardRow, currentCol) && board.getPiece(new ChessPosition(forwardRow, currentCol)) == null) {
-            addPawnMove(pawnMoves, position, forwardRow, currentCol, teamColor);
-        }
-
-        // Double move for pawns on starting row
-        if (isInitialPawnRow(position, teamColor)) {
-            int doubleMoveRow = (teamColor == ChessGame.TeamColor.WHITE) ? forwardRow + 1 : forwardRow - 1;
-
-            // Check if the square directly in front is empty
-            if (isValidPosition(forwardRow, currentCol) && board.getPiece(new ChessPosition(forwardRow, currentCol)) == null) {
-
-                // If the square in front is empty, check for the double move
-                if (isValidPosition(doubleMoveRow, currentCol) && board.getPiece(new ChessPosition(doubleMoveRow, currentCol)) == null) {
-                    pawnMoves.add(new ChessMove(position, new ChessPosition(doubleMoveRow, currentCol), null));
-                }
-            }
+            return new ArrayList<>();
         }
 
-        return pawnMoves;
-    }
-
-    private void checkPawnAttack(chess.ChessBoard board, ChessPosition position, ChessGame.TeamColor teamColor,
-                                 Collection<ChessMove> pawnMoves, int forwardRow, int attackCol) {
-        if (isValidPosition(forwardRow, attackCol)) {
-            ChessPiece targetPiece = board.getPiece(new ChessPosition(forwardRow, attackCol));
-            if (targetPiece != null && targetPiece.getTeamColor() != teamColor) {
-                addPawnMove(pawnMoves, position, forwardRow, attackCol, teamColor);
-            }
-        }
-    }
-
-    private void addPawnMove(Collection<ChessMove> pawnMoves, ChessPosition from, int row, int col, ChessGame.TeamColor teamColor) {
-        ChessPosition to = new ChessPosition(row, col);
-        if (row == 1 || row == 8) {
-            // Promotion
-            pawnMoves.add(new ChessMove(from, to, PieceType.QUEEN));
-            pawnMoves.add(new ChessMove(from, to, PieceType.ROOK));
-            pawnMoves.add(new ChessMove(from, to, PieceType.BISHOP));
-            pawnMoves.add(new ChessMove(from, to, PieceType.KNIGHT));
-        } else {
-            pawnMoves.add(new ChessMove(from, to, null));
-        }
-    }
-
-    private boolean isInitialPawnRow(ChessPosition position, ChessGame.TeamColor teamColor) {
-        return (teamColor == ChessGame.TeamColor.WHITE && position.getRow() == 2) ||
-                (teamColor == ChessGame.TeamColor.BLACK && position.getRow() == 7);
-    }
-
-    //for Queen, Rook, Bishop
-    private Collection<ChessMove> getDirectionalMoves(chess.ChessBoard board, ChessPosition position, ChessGame.TeamColor teamColor,
-                                                      int... directions) {
-        Collection<ChessMove> moves = new ArrayList<>();
-        for (int i = 0; i < directions.length; i += 2) {
-            moves.addAll(getMovesInDirection(board, position, teamColor, directions[i], directions[i + 1]));
-        }
-        return moves;
-    }
-
-    private Collection<ChessMove> getMovesInDirection(chess.ChessBoard board, ChessPosition position, ChessGame.TeamColor teamColor,
-                                                      int rowDelta, int colDelta) {
-        Collection<ChessMove> moves = new ArrayList<>();
-        int row = position.getRow();
-        int col = position.getColumn();
-        while (true) {
-            row += rowDelta;
-            col += colDelta;
-
-            if (!isValidPosition(row, col)) {
-                break;
-            }
-
-            ChessPosition newPosition = new ChessPosition(row, col);
-            ChessPiece targetPiece = board.getPiece(newPosition);
-
-            if (targetPiece == null) {
-                moves.add(new ChessMove(position, newPosition, null));
-            } else {
-                if (targetPiece.getTeamColor() != teamColor) {
-                    moves.add(new ChessMove(position, newPosition, null));
-                }
-                break; // Blocked by a piece
-            }
-        }
-        return moves;
-    }
-
-    private Collection<ChessMove> getKnightMoves(chess.ChessBoard board, ChessPosition position, ChessGame.TeamColor teamColor) {
-        Collection<ChessMove> knightMoves = new ArrayList<>();
-        int[][] knightOffsets = {
-                {2, 1}, {2, -1}, {-2, 1}, {-2, -1},
-                {1, 2}, {1, -2}, {-1, 2}, {-1, -2}
-        };
-
-        for (int[] offset : knightOffsets) {
-            int newRow = position.getRow() + offset[0];
-            int newCol = position.getColumn() + offset[1];
-
-            if (isValidPosition(newRow, newCol)) {
-                ChessPiece targetPiece = board.getPiece(new ChessPosition(newRow, newCol));
-                if (targetPiece == null || targetPiece.getTeamColor() != teamColor) {
-                    knightMoves.add(new ChessMove(position, new ChessPosition(newRow, newCol), null));
-                }
-            }
-        }
-        return knightMoves;
-    }
-
-    private Collection<ChessMove> getKingMoves(chess.ChessBoard board, ChessPosition position, ChessGame.TeamColor teamColor) {
-        Collection<ChessMove> kingMoves = new ArrayList<>();
-        int[][] kingOffsets = {
-                {0, 1}, {0, -1}, {1, 0}, {-1, 0},
-                {1, 1}, {1, -1}, {-1, 1}, {-1, -1}
-        };
-
-        for (int[] offset : kingOffsets) {
-            int newRow = position.getRow() + offset[0];
-            int newCol = position.getColumn() + offset[1];
-
-            if (isValidPosition(newRow, newCol)) {
-                ChessPiece targetPiece = board.getPiece(new ChessPosition(newRow, newCol));
-                if (targetPiece == null || targetPiece.getTeamColor() != teamColor) {
-                    kingMoves.add(new ChessMove(position, new ChessPosition(newRow, newCol), null));
-                }
-            }
-        }
-        return kingMoves;
-    }
-
-    private boolean isValidPosition(int row, int col) {
-        return row >= 1      && row <= 8 && col >= 1 && col <= 8;
+        MoveList moves = SCRATCH_MOVES.get();
+        moves.clear();
+        GENERATOR.get().generatePseudoLegalMoves(board, currentPiece.getTeamColor(),
+                1L << ChessBoard.squareOf(myPosition), moves);
+        return moves.toChessMoves();
     }
 
     @Override
@@ -1,5 +1,4 @@
 package chess;
-import java.util.Objects;
 
 /**
  * Represents a single square position on a chess board
@@ -8,6 +7,13 @@ import java.util.Objects;
  * signature of the existing methods.
  */
 public class ChessPosition {
+    private static final ChessPosition[] SQUARES = new ChessPosition[64];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            SQUARES[square] = new ChessPosition((square >>> 3) + 1, (square & 7) + 1);
+        }
+    }
 
     private final int r;
     private final int c;
@@ -17,6 +23,27 @@ public class ChessPosition {
         this.c = c;
     }
 
+    /**
+     * Gets the shared instance for a square, so that hot paths do not allocate positions
+     *
+     * @param r row, 1 through 8
+     * @param c column, 1 through 8
+     * @return the canonical position, or a new one if the coordinates are off the board
+     */
+    public static ChessPosition of(int r, int c) {
+        if (r < 1 || r > 8 || c < 1 || c > 8) {
+            return new ChessPosition(r, c);
+        }
+        return SQUARES[(r - 1) * 8 + (c - 1)];
+    }
+
+    /**
+     * @return the shared instance for a 0-63 square index, counting a1 as 0
+     */
+    static ChessPosition ofSquare(int square) {
+        return SQUARES[square];
+    }
+
     /**
      * @return which row this position is in
      * 1 codes for the bottom row
@@ -51,7 +78,7 @@ public class ChessPosition {
 
     @Override
     public int hashCode() {
-        return Objects.hash(r, c);
+        return 31 * r + c;
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,114 @@
+package chess;
+
+import java.util.Arrays;
+
+/**
+ * Packs the parts of a game's state that the board does not show into a single {@code int}, so
+ * that copying it into an undo record or hashing it costs one field access.
+ * <p>
+ * Bits 0-3 hold the castling rights ({@link #WHITE_KINGSIDE} and friends), bits 4-7 the file of
+ * a pawn that may be captured en passant as {@code file + 1} (0 for none), bits 8-15 the
+ * halfmove clock and bits 16-31 the fullmove number.
+ */
+public final class GameState {
+    public static final int WHITE_KINGSIDE = 1;
+    public static final int WHITE_QUEENSIDE = 2;
+    public static final int BLACK_KINGSIDE = 4;
+    public static final int BLACK_QUEENSIDE = 8;
+    public static final int ALL_CASTLING = 0xF;
+    public static final int NO_EN_PASSANT = -1;
+    /** Halfmove clock at which the fifty-move rule draws the game */
+    public static final int FIFTY_MOVE_PLIES = 100;
+
+    /** Every castling right, no en passant, and the clocks of a new game */
+    public static final int INITIAL = of(ALL_CASTLING, NO_EN_PASSANT, 0, 1);
+
+    private static final int EN_PASSANT_SHIFT = 4;
+    private static final int HALFMOVE_SHIFT = 8;
+    private static final int FULLMOVE_SHIFT = 16;
+    private static final int MAX_HALFMOVE = 0xFF;
+    private static final int MAX_FULLMOVE = 0xFFFF;
+
+    // Rights kept when a move starts or ends on each square; only king and rook homes clear any
+    private static final int[] CASTLING_KEPT = new int[64];
+
+    static {
+        Arrays.fill(CASTLING_KEPT, ALL_CASTLING);
+        CASTLING_KEPT[0] = ALL_CASTLING & ~WHITE_QUEENSIDE;
+        CASTLING_KEPT[4] = ALL_CASTLING & ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+        CASTLING_KEPT[7] = ALL_CASTLING & ~WHITE_KINGSIDE;
+        CASTLING_KEPT[56] = ALL_CASTLING & ~BLACK_QUEENSIDE;
+        CASTLING_KEPT[60] = ALL_CASTLING & ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+        CASTLING_KEPT[63] = ALL_CASTLING & ~BLACK_KINGSIDE;
+    }
+
+    private GameState() {
+    }
+
+    /**
+     * @param enPassantFile 0-7 with the a-file as 0, or {@link #NO_EN_PASSANT}
+     */
+    public static int of(int castlingRights, int enPassantFile, int halfmoveClock, int fullmoveNumber) {
+        return (castlingRights & ALL_CASTLING)
+                | ((enPassantFile + 1) << EN_PASSANT_SHIFT)
+                | (Math.min(halfmoveClock, MAX_HALFMOVE) << HALFMOVE_SHIFT)
+                | (Math.min(fullmoveNumber, MAX_FULLMOVE) << FULLMOVE_SHIFT);
+    }
+
+    public static int castlingRights(int state) {
+        return state & ALL_CASTLING;
+    }
+
+    /**
+     * @return the file of the pawn that just moved two squares, or {@link #NO_EN_PASSANT}
+     */
+    public static int enPassantFile(int state) {
+        return ((state >>> EN_PASSANT_SHIFT) & 0xF) - 1;
+    }
+
+    /**
+     * @return plies since the last capture or pawn move, capped at 255
+     */
+    public static int halfmoveClock(int state) {
+        return (state >>> HALFMOVE_SHIFT) & MAX_HALFMOVE;
+    }
+
+    public static int fullmoveNumber(int state) {
+        return state >>> FULLMOVE_SHIFT;
+    }
+
+    public static int withCastlingRights(int state, int castlingRights) {
+        return (state & ~ALL_CASTLING) | (castlingRights & ALL_CASTLING);
+    }
+
+    public static int withEnPassantFile(int state, int enPassantFile) {
+        return (state & ~(0xF << EN_PASSANT_SHIFT)) | ((enPassantFile + 1) << EN_PASSANT_SHIFT);
+    }
+
+    /**
+     * @return the rights left after a move between two squares, which loses any right whose
+     * king or rook moves or is captured
+     */
+    static int castlingRightsAfter(int castlingRights, int from, int to) {
+        return castlingRights & CASTLING_KEPT[from] & CASTLING_KEPT[to];
+    }
+
+    /**
+     * @return the castling rights a board's king and rook placement still allows, assuming that
+     * kings and rooks on their home squares have not moved
+     */
+    static int inferCastlingRights(ChessBoard board) {
+        int rights = 0;
+        int whiteRook = ChessBoard.pieceIndex(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK);
+        int blackRook = ChessBoard.pieceIndex(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK);
+        if (board.kingSquare(ChessGame.TeamColor.WHITE) == 4) {
+            rights |= board.pieceAt(7) == whiteRook ? WHITE_KINGSIDE : 0;
+            rights |= board.pieceAt(0) == whiteRook ? WHITE_QUEENSIDE : 0;
+        }
+        if (board.kingSquare(ChessGame.TeamColor.BLACK) == 60) {
+            rights |= board.pieceAt(63) == blackRook ? BLACK_KINGSIDE : 0;
+            rights |= board.pieceAt(56) == blackRook ? BLACK_QUEENSIDE : 0;
+        }
+        return rights;
+    }
+}
@@ -0,0 +1,62 @@
+package chess;
+
+/**
+ * Packs a move into a single {@code int} so that move lists, undo records and search tables
+ * can hold moves without allocating {@link ChessMove} and {@link ChessPosition} objects.
+ * <p>
+ * Bits 0-5 hold the start square and bits 6-11 the end square, both as 0-63 indexes with a1 as
+ * 0; bits 12-14 hold the promotion piece as {@code PieceType.ordinal() + 1}, or 0 for none.
+ * The value {@link #NONE} never encodes a real move.
+ */
+public final class Move {
+    public static final int NONE = 0;
+
+    private static final int SQUARE_MASK = 0x3F;
+    private static final int TO_SHIFT = 6;
+    private static final int PROMOTION_SHIFT = 12;
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    private Move() {
+    }
+
+    public static int of(int from, int to) {
+        return from | (to << TO_SHIFT);
+    }
+
+    public static int of(int from, int to, ChessPiece.PieceType promotion) {
+        int move = of(from, to);
+        return promotion == null ? move : move | ((promotion.ordinal() + 1) << PROMOTION_SHIFT);
+    }
+
+    public static int from(int move) {
+        return move & SQUARE_MASK;
+    }
+
+    public static int to(int move) {
+        return (move >>> TO_SHIFT) & SQUARE_MASK;
+    }
+
+    /**
+     * @return the promotion piece, or null if the move is not a promotion
+     */
+    public static ChessPiece.PieceType promotion(int move) {
+        int code = (move >>> PROMOTION_SHIFT) & 0x7;
+        return code == 0 ? null : TYPES[code - 1];
+    }
+
+    public static int fromChessMove(ChessMove move) {
+        return of(ChessBoard.squareOf(move.getStartPosition()), ChessBoard.squareOf(move.getEndPosition()),
+                move.getPromotionPiece());
+    }
+
+    public static ChessMove toChessMove(int move) {
+        return new ChessMove(ChessBoard.positionOf(from(move)), ChessBoard.positionOf(to(move)), promotion(move));
+    }
+
+    /**
+     * @return the move in coordinate notation, such as {@code e2e4} or {@code e7e8q}
+     */
+    public static String toString(int move) {
+        return toChessMove(move).toString();
+    }
+}
@@ -0,0 +1,298 @@
+package chess;
+
+import chess.ChessGame.TeamColor;
+import chess.ChessPiece.PieceType;
+
+/**
+ * Generates strictly legal moves for one team.
+ * <p>
+ * Rather than trying each pseudo-legal move and testing for check afterwards, the pieces giving
+ * check and the pieces pinned to their king are worked out once up front. Under double check
+ * only the king may move; under single check every other piece is limited to capturing the
+ * checker or blocking its ray; and a pinned piece may only move along the line to its pinner.
+ * King moves are tested against attacks with the king lifted off the board, so it cannot step
+ * backwards along the ray of a slider that is checking it.
+ * <p>
+ * Castling and en passant depend on the packed {@link GameState}, so they are only generated
+ * for legal moves. An en passant capture lifts two pawns off the same rank at once, which no
+ * pin mask describes, so it is checked by probing the king for attacks on the resulting board.
+ * <p>
+ * Moves are written as packed {@link Move} values into a caller-owned {@link MoveList}.
+ */
+final class MoveGenerator {
+    private static final PieceType[] PROMOTIONS = {
+            PieceType.QUEEN, PieceType.ROOK, PieceType.BISHOP, PieceType.KNIGHT
+    };
+    private static final long RANK_1 = 0xFFL;
+    private static final long RANK_8 = 0xFFL << 56;
+
+    // Scratch state for the position being generated, reused between calls
+    private ChessBoard board;
+    private TeamColor us;
+    private TeamColor them;
+    private boolean legal;
+    private int kingSquare;
+    private long pinned;
+    private long checkMask;
+    private int castlingRights;
+    private int enPassantFile;
+    // Where moves other than pawn pushes may land, and where pawn pushes may land
+    private long targetMask;
+    private long pushMask;
+
+    /**
+     * Adds every legal move of the given team's pieces on {@code fromMask} squares to {@code moves}
+     *
+     * @param state packed {@link GameState} supplying castling rights and the en passant file
+     */
+    void generateLegalMoves(ChessBoard board, TeamColor color, int state, long fromMask, MoveList moves) {
+        setUp(board, color, true);
+        castlingRights = GameState.castlingRights(state);
+        enPassantFile = GameState.enPassantFile(state);
+        generate(fromMask, moves);
+    }
+
+    /**
+     * Adds the legal captures, en passant captures and promotions of the given team, the moves
+     * that change material, for searches that only look at tactical moves
+     *
+     * @param state packed {@link GameState} supplying the en passant file
+     */
+    void generateLegalCaptures(ChessBoard board, TeamColor color, int state, MoveList moves) {
+        setUp(board, color, true);
+        castlingRights = 0;
+        enPassantFile = GameState.enPassantFile(state);
+        targetMask = board.pieces(them);
+        pushMask = RANK_1 | RANK_8;
+        generate(-1L, moves);
+    }
+
+    /**
+     * Adds the moves of the given team's pieces on {@code fromMask} squares without regard to
+     * whether they leave the king in check
+     */
+    void generatePseudoLegalMoves(ChessBoard board, TeamColor color, long fromMask, MoveList moves) {
+        setUp(board, color, false);
+        castlingRights = 0;
+        enPassantFile = GameState.NO_EN_PASSANT;
+        generate(fromMask, moves);
+    }
+
+    private void generate(long fromMask, MoveList moves) {
+        long own = board.pieces(us);
+        int base = us.ordinal() * 6;
+
+        long kings = board.pieces(base + PieceType.KING.ordinal()) & fromMask;
+        while (kings != 0) {
+            int from = Long.numberOfTrailingZeros(kings);
+            kings &= kings - 1;
+            generateKingMoves(from, own, moves);
+        }
+        if (checkMask == 0) {
+            // Double check: nothing but the king can help
+            return;
+        }
+
+        long targets = ~own & checkMask & targetMask;
+        long occupied = board.occupied();
+
+        long knights = board.pieces(base + PieceType.KNIGHT.ordinal()) & fromMask & ~pinned;
+        while (knights != 0) {
+            int from = Long.numberOfTrailingZeros(knights);
+            knights &= knights - 1;
+            emitAll(from, Bitboards.KNIGHT_ATTACKS[from] & targets, moves);
+        }
+
+        long queens = board.pieces(base + PieceType.QUEEN.ordinal());
+        long diagonal = (board.pieces(base + PieceType.BISHOP.ordinal()) | queens) & fromMask;
+        while (diagonal != 0) {
+            int from = Long.numberOfTrailingZeros(diagonal);
+            diagonal &= diagonal - 1;
+            emitAll(from, Bitboards.bishopAttacks(from, occupied) & targets & pinMask(from), moves);
+        }
+
+        long orthogonal = (board.pieces(base + PieceType.ROOK.ordinal()) | queens) & fromMask;
+        while (orthogonal != 0) {
+            int from = Long.numberOfTrailingZeros(orthogonal);
+            orthogonal &= orthogonal - 1;
+            emitAll(from, Bitboards.rookAttacks(from, occupied) & targets & pinMask(from), moves);
+        }
+
+        generatePawnMoves(board.pieces(base + PieceType.PAWN.ordinal()) & fromMask, moves);
+    }
+
+    private void setUp(ChessBoard board, TeamColor color, boolean legal) {
+        this.board = board;
+        this.legal = legal;
+        this.us = color;
+        this.them = ChessGame.opponentOf(color);
+        this.kingSquare = board.kingSquare(color);
+        this.pinned = 0;
+        this.checkMask = -1L;
+        this.targetMask = -1L;
+        this.pushMask = -1L;
+        if (!legal || kingSquare == Bitboards.NO_SQUARE) {
+            return;
+        }
+
+        long occupied = board.occupied();
+        long checkers = board.attackersOf(kingSquare, them, occupied);
+        if (Long.bitCount(checkers) > 1) {
+            checkMask = 0;
+        } else if (checkers != 0) {
+            checkMask = checkers | Bitboards.BETWEEN[kingSquare][Long.numberOfTrailingZeros(checkers)];
+        }
+        findPins(occupied);
+    }
+
+    private void findPins(long occupied) {
+        long own = board.pieces(us);
+        int base = them.ordinal() * 6;
+        long queens = board.pieces(base + PieceType.QUEEN.ordinal());
+        long rooksQueens = board.pieces(base + PieceType.ROOK.ordinal()) | queens;
+        long bishopsQueens = board.pieces(base + PieceType.BISHOP.ordinal()) | queens;
+
+        for (int dir = 0; dir < 8; dir++) {
+            long blocker = Bitboards.rayAttacks(dir, kingSquare, occupied) & own;
+            if (blocker == 0) {
+                continue;
+            }
+            long beyond = Bitboards.rayAttacks(dir, kingSquare, occupied & ~blocker);
+            long sliders = isDiagonal(dir) ? bishopsQueens : rooksQueens;
+            long pinner = beyond & sliders & ~blocker;
+            if (pinner != 0) {
+                pinned |= blocker;
+            }
+        }
+    }
+
+    private static boolean isDiagonal(int direction) {
+        return direction == Bitboards.NORTH_EAST || direction == Bitboards.NORTH_WEST
+                || direction == Bitboards.SOUTH_EAST || direction == Bitboards.SOUTH_WEST;
+    }
+
+    /**
+     * A pinned piece may only move along the line through its king and its pinner; the king
+     * and the pinner themselves bound how far along that line it can go.
+     *
+     * @return the squares a piece may move to without exposing its king
+     */
+    private long pinMask(int square) {
+        return (pinned & (1L << square)) == 0 ? -1L : Bitboards.LINE[kingSquare][square];
+    }
+
+    private void generateKingMoves(int from, long own, MoveList moves) {
+        long occupiedWithoutKing = board.occupied() & ~(1L << from);
+        long targets = Bitboards.KING_ATTACKS[from] & ~own & targetMask;
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            if (!legal || board.attackersOf(to, them, occupiedWithoutKing) == 0) {
+                moves.add(Move.of(from, to));
+            }
+        }
+        if (castlingRights != 0 && from == kingSquare && checkMask == -1L) {
+            generateCastling(from, moves);
+        }
+    }
+
+    /**
+     * Castles the king two squares toward a rook that has not moved, when the squares between
+     * them are empty and the king neither starts in, passes through nor lands on an attacked
+     * square. The caller has already ruled out check.
+     */
+    private void generateCastling(int from, MoveList moves) {
+        boolean white = us == TeamColor.WHITE;
+        int home = white ? 4 : 60;
+        if (from != home) {
+            return;
+        }
+        int rook = ChessBoard.pieceIndex(us, PieceType.ROOK);
+        int kingside = white ? GameState.WHITE_KINGSIDE : GameState.BLACK_KINGSIDE;
+        int queenside = white ? GameState.WHITE_QUEENSIDE : GameState.BLACK_QUEENSIDE;
+        long occupied = board.occupied();
+
+        if ((castlingRights & kingside) != 0 && board.pieceAt(home + 3) == rook
+                && (occupied & Bitboards.BETWEEN[home][home + 3]) == 0
+                && board.attackersOf(home + 1, them, occupied) == 0
+                && board.attackersOf(home + 2, them, occupied) == 0) {
+            moves.add(Move.of(home, home + 2));
+        }
+        if ((castlingRights & queenside) != 0 && board.pieceAt(home - 4) == rook
+                && (occupied & Bitboards.BETWEEN[home][home - 4]) == 0
+                && board.attackersOf(home - 1, them, occupied) == 0
+                && board.attackersOf(home - 2, them, occupied) == 0) {
+            moves.add(Move.of(home, home - 2));
+        }
+    }
+
+    private void generatePawnMoves(long pawns, MoveList moves) {
+        long empty = ~board.occupied();
+        long enemy = board.pieces(them);
+        boolean white = us == TeamColor.WHITE;
+        int forward = white ? 8 : -8;
+        int startRow = white ? 1 : 6;
+        if (enPassantFile != GameState.NO_EN_PASSANT) {
+            generateEnPassant(pawns, white ? 40 + enPassantFile : 16 + enPassantFile, forward, moves);
+        }
+
+        while (pawns != 0) {
+            int from = Long.numberOfTrailingZeros(pawns);
+            pawns &= pawns - 1;
+            long allowed = checkMask & pinMask(from);
+
+            long pushes = 0;
+            int single = from + forward;
+            if (single >= 0 && single < 64 && (empty & (1L << single)) != 0) {
+                pushes |= 1L << single;
+                int twice = single + forward;
+                if (from >>> 3 == startRow && (empty & (1L << twice)) != 0) {
+                    pushes |= 1L << twice;
+                }
+            }
+            long targets = ((Bitboards.PAWN_ATTACKS[us.ordinal()][from] & enemy) | (pushes & pushMask)) & allowed;
+
+            while (targets != 0) {
+                int to = Long.numberOfTrailingZeros(targets);
+                targets &= targets - 1;
+                if (((1L << to) & (RANK_1 | RANK_8)) != 0) {
+                    for (PieceType promotion : PROMOTIONS) {
+                        moves.add(Move.of(from, to, promotion));
+                    }
+                } else {
+                    moves.add(Move.of(from, to));
+                }
+            }
+        }
+    }
+
+    private void generateEnPassant(long pawns, int target, int forward, MoveList moves) {
+        int captured = target - forward;
+        if (board.pieceAt(captured) != ChessBoard.pieceIndex(them, PieceType.PAWN)
+                || board.pieceAt(target) != ChessBoard.NO_PIECE) {
+            return;
+        }
+        long capturers = Bitboards.PAWN_ATTACKS[them.ordinal()][target] & pawns;
+        while (capturers != 0) {
+            int from = Long.numberOfTrailingZeros(capturers);
+            capturers &= capturers - 1;
+            if (!legal || kingSquare == Bitboards.NO_SQUARE || leavesKingSafe(from, target, captured)) {
+                moves.add(Move.of(from, target));
+            }
+        }
+    }
+
+    private boolean leavesKingSafe(int from, int target, int captured) {
+        long capturedBit = 1L << captured;
+        long occupied = (board.occupied() & ~(1L << from) & ~capturedBit) | (1L << target);
+        return (board.attackersOf(kingSquare, them, occupied) & ~capturedBit) == 0;
+    }
+
+    private static void emitAll(int from, long targets, MoveList moves) {
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            moves.add(Move.of(from, to));
+        }
+    }
+}
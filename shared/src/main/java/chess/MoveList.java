@@ -0,0 +1,60 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A reusable, fixed-capacity list of packed {@link Move} values. Generators fill it without
+ * boxing; callers clear and refill the same list rather than allocating one per position.
+ */
+public final class MoveList {
+    // No legal chess position has more than 218 moves
+    private static final int CAPACITY = 256;
+
+    private final int[] moves = new int[CAPACITY];
+    private int size;
+
+    public void add(int move) {
+        moves[size++] = move;
+    }
+
+    public int get(int index) {
+        return moves[index];
+    }
+
+    public void set(int index, int move) {
+        moves[index] = move;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public boolean contains(int move) {
+        for (int i = 0; i < size; i++) {
+            if (moves[i] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the moves as {@link ChessMove} objects, for the collection-based APIs
+     */
+    public List<ChessMove> toChessMoves() {
+        List<ChessMove> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(Move.toChessMove(moves[i]));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,51 @@
+package chess;
+
+/**
+ * Remembers what a move applied with {@link ChessGame#makeMove(ChessMove, MoveUndo)} changed,
+ * so that {@link ChessGame#unmakeMove(MoveUndo)} can put the game back exactly as it was.
+ * <p>
+ * Records are meant to be reused: callers keep one per ply rather than allocating one per move.
+ */
+public class MoveUndo {
+    int move;
+    int movedPiece;
+    int capturedPiece;
+    int capturedSquare;
+    ChessGame.TeamColor priorTurn;
+    int priorState;
+
+    /**
+     * @return the packed {@link Move} that was made
+     */
+    public int getMove() {
+        return move;
+    }
+
+    /**
+     * @return the piece removed from the destination square, or null if the move was not a capture
+     */
+    public ChessPiece getCapturedPiece() {
+        return capturedPiece == ChessBoard.NO_PIECE ? null : ChessBoard.pieceFor(capturedPiece);
+    }
+
+    /**
+     * @return the type the moving pawn was promoted to, or null if there was no promotion
+     */
+    public ChessPiece.PieceType getPromotion() {
+        return Move.promotion(move);
+    }
+
+    /**
+     * @return whose turn it was before the move was made
+     */
+    public ChessGame.TeamColor getPriorTurn() {
+        return priorTurn;
+    }
+
+    /**
+     * @return the packed {@link GameState} from before the move was made
+     */
+    public int getPriorState() {
+        return priorState;
+    }
+}
@@ -0,0 +1,134 @@
+package chess;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts the leaf nodes of the legal move tree to a fixed depth ("perft"). Comparing the counts
+ * against published values for well-known positions is the standard way to check a move
+ * generator, and timing them gives its throughput.
+ * <p>
+ * Run {@code main} with no arguments to check every standard position, or with
+ * {@code divide <depth> <fen>} to print the count under each root move when tracking down a
+ * mismatch.
+ */
+public class Perft {
+    /**
+     * A position with its published node counts, where {@code nodeCounts[d - 1]} is perft(d)
+     */
+    public record Position(String name, String fen, long[] nodeCounts) {
+        public int maxDepth() {
+            return nodeCounts.length;
+        }
+    }
+
+    public static final List<Position> STANDARD_POSITIONS = List.of(
+            new Position("start", "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+                    new long[]{20, 400, 8902, 197281, 4865609}),
+            new Position("kiwipete", "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                    new long[]{48, 2039, 97862, 4085603}),
+            new Position("position3", "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+                    new long[]{14, 191, 2812, 43238, 674624}),
+            new Position("position4", "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+                    new long[]{6, 264, 9467, 422333}),
+            new Position("position5", "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+                    new long[]{44, 1486, 62379, 2103487}),
+            new Position("position6", "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+                    new long[]{46, 2079, 89890, 3894594})
+    );
+
+    private static final int MAX_DEPTH = 32;
+
+    private final ChessGame game;
+    private final MoveList[] movesByPly = new MoveList[MAX_DEPTH];
+    private final MoveUndo[] undoByPly = new MoveUndo[MAX_DEPTH];
+
+    public Perft(ChessGame game) {
+        this.game = game;
+        for (int ply = 0; ply < MAX_DEPTH; ply++) {
+            movesByPly[ply] = new MoveList();
+            undoByPly[ply] = new MoveUndo();
+        }
+    }
+
+    /**
+     * @return the number of legal move sequences of exactly {@code depth} plies
+     */
+    public long count(int depth) {
+        if (depth < 0 || depth > MAX_DEPTH) {
+            throw new IllegalArgumentException("Depth must be between 0 and " + MAX_DEPTH);
+        }
+        return count(depth, 0);
+    }
+
+    private long count(int depth, int ply) {
+        if (depth == 0) {
+            return 1;
+        }
+        MoveList moves = movesByPly[ply];
+        game.legalMoves(moves);
+        if (depth == 1) {
+            return moves.size();
+        }
+
+        long nodes = 0;
+        MoveUndo undo = undoByPly[ply];
+        for (int i = 0; i < moves.size(); i++) {
+            game.makeMove(moves.get(i), undo);
+            nodes += count(depth - 1, ply + 1);
+            game.unmakeMove(undo);
+        }
+        return nodes;
+    }
+
+    /**
+     * @return the perft count below each legal root move, in generation order
+     */
+    public Map<ChessMove, Long> divide(int depth) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("Depth must be at least 1");
+        }
+        Map<ChessMove, Long> counts = new LinkedHashMap<>();
+        MoveList moves = new MoveList();
+        game.legalMoves(moves);
+        MoveUndo undo = new MoveUndo();
+        for (int i = 0; i < moves.size(); i++) {
+            game.makeMove(moves.get(i), undo);
+            counts.put(Move.toChessMove(moves.get(i)), count(depth - 1));
+            game.unmakeMove(undo);
+        }
+        return counts;
+    }
+
+    public static void main(String[] args) {
+        if (args.length >= 3 && args[0].equals("divide")) {
+            int depth = Integer.parseInt(args[1]);
+            String fen = String.join(" ", List.of(args).subList(2, args.length));
+            long total = 0;
+            for (var entry : new Perft(ChessGame.fromFen(fen)).divide(depth).entrySet()) {
+                System.out.printf("%s: %d%n", entry.getKey(), entry.getValue());
+                total += entry.getValue();
+            }
+            System.out.printf("%nNodes searched: %d%n", total);
+            return;
+        }
+
+        boolean allPassed = true;
+        for (Position position : STANDARD_POSITIONS) {
+            for (int depth = 1; depth <= position.maxDepth(); depth++) {
+                long start = System.nanoTime();
+                long nodes = new Perft(ChessGame.fromFen(position.fen())).count(depth);
+                long elapsed = System.nanoTime() - start;
+                long expected = position.nodeCounts()[depth - 1];
+                allPassed &= nodes == expected;
+                System.out.printf("%-10s depth %d: %,12d nodes %s %8.1f ms %,12.0f nodes/s%n",
+                        position.name(), depth, nodes, nodes == expected ? "ok  " : "FAIL",
+                        elapsed / 1e6, nodes * 1e9 / Math.max(elapsed, 1));
+            }
+        }
+        if (!allPassed) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package chess;
+
+/**
+ * Random keys for Zobrist hashing. A position's key is the XOR of the key for every piece on
+ * its square, plus {@link #BLACK_TO_MOVE} when it is black's turn, the key for the current set
+ * of castling rights, and the key for the en passant file if there is one. Each piece change
+ * updates the key with a single XOR.
+ * <p>
+ * Keys come from a fixed-seed SplitMix64 sequence so that they are identical in every process;
+ * hashes can therefore be stored on disk or compared between servers.
+ */
+final class Zobrist {
+    static final long[][] PIECE_SQUARE = new long[ChessBoard.PIECE_KINDS][64];
+    static final long BLACK_TO_MOVE;
+    /** Indexed by the {@link GameState} castling rights bits as a whole */
+    static final long[] CASTLING = new long[16];
+    static final long[] EN_PASSANT_FILE = new long[8];
+
+    static {
+        long state = 0x43484553532D3234L;
+        for (int piece = 0; piece < ChessBoard.PIECE_KINDS; piece++) {
+            for (int square = 0; square < 64; square++) {
+                state += 0x9E3779B97F4A7C15L;
+                PIECE_SQUARE[piece][square] = mix(state);
+            }
+        }
+        state += 0x9E3779B97F4A7C15L;
+        BLACK_TO_MOVE = mix(state);
+        // Rights 0 (none) keeps a zero key so positions without castling hash as before
+        for (int rights = 1; rights < CASTLING.length; rights++) {
+            state += 0x9E3779B97F4A7C15L;
+            CASTLING[rights] = mix(state);
+        }
+        for (int file = 0; file < EN_PASSANT_FILE.length; file++) {
+            state += 0x9E3779B97F4A7C15L;
+            EN_PASSANT_FILE[file] = mix(state);
+        }
+    }
+
+    /**
+     * @return the part of the key that comes from a packed {@link GameState}
+     */
+    static long of(int gameState) {
+        long key = CASTLING[GameState.castlingRights(gameState)];
+        int file = GameState.enPassantFile(gameState);
+        return file == GameState.NO_EN_PASSANT ? key : key ^ EN_PASSANT_FILE[file];
+    }
+
+    private Zobrist() {
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,22 @@
+package chess.book;
+
+import chess.ChessMove;
+import chess.Move;
+
+/**
+ * One move an {@link OpeningBook} suggests for a position
+ *
+ * @param move   the packed {@link Move}
+ * @param weight how strongly the book prefers it, relative to the position's other moves
+ */
+public record BookMove(int move, int weight) {
+
+    public ChessMove toChessMove() {
+        return Move.toChessMove(move);
+    }
+
+    @Override
+    public String toString() {
+        return Move.toString(move) + " (" + weight + ")";
+    }
+}
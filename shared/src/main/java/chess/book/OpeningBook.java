@@ -0,0 +1,184 @@
+package chess.book;
+
+import chess.ChessGame;
+import chess.Move;
+import chess.MoveList;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Suggests moves for well-known positions from a book file, read in place through a
+ * memory-mapped buffer.
+ * <p>
+ * The file is an 8-byte header, the {@link #MAGIC} number and the {@link #VERSION}, followed by
+ * 12-byte entries sorted by position: the position's {@link ChessGame#getZobristKey()} as a
+ * signed {@code long}, then the packed {@link Move} and its weight as unsigned 16-bit numbers,
+ * all big-endian. A position with several moves has one entry per move, next to each other.
+ * {@link OpeningBookWriter} writes such files.
+ * <p>
+ * Opening a book maps the file and checks its header; nothing is copied onto the heap, so opening
+ * costs the same for any size of book, and processes that open the same file share its pages
+ * through the operating system's cache. Lookups binary search the mapped entries. A book is
+ * read-only and safe to share between threads.
+ */
+public final class OpeningBook {
+    public static final int MAGIC = 0x43424F4B;
+    public static final int VERSION = 1;
+
+    static final int HEADER_BYTES = 8;
+    static final int ENTRY_BYTES = 12;
+
+    private final ByteBuffer entries;
+    private final int size;
+
+    private OpeningBook(ByteBuffer entries) {
+        this.entries = entries;
+        this.size = entries.capacity() / ENTRY_BYTES;
+    }
+
+    /**
+     * Maps a book file. The file should not be changed while the book is in use.
+     *
+     * @param file a file written by {@link OpeningBookWriter}
+     * @return the book
+     * @throws IOException if the file cannot be read, or is not a book
+     */
+    public static OpeningBook open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < HEADER_BYTES || (length - HEADER_BYTES) % ENTRY_BYTES != 0) {
+                throw new IOException("Not an opening book: " + file);
+            }
+            if (length > Integer.MAX_VALUE) {
+                throw new IOException("Opening book is too large to map: " + file);
+            }
+            // The mapping stays valid after the channel is closed
+            ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            if (mapped.getInt(0) != MAGIC || mapped.getInt(4) != VERSION) {
+                throw new IOException("Not a version " + VERSION + " opening book: " + file);
+            }
+            return new OpeningBook(mapped.slice(HEADER_BYTES, (int) length - HEADER_BYTES));
+        }
+    }
+
+    /**
+     * @return how many entries, one per position and move, the book holds
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param key a position's {@link ChessGame#getZobristKey()}
+     * @return the book's moves for that position, in file order, or an empty list
+     */
+    public List<BookMove> lookup(long key) {
+        int first = firstEntry(key);
+        if (first == size || keyAt(first) != key) {
+            return Collections.emptyList();
+        }
+        List<BookMove> moves = new ArrayList<>();
+        for (int i = first; i < size && keyAt(i) == key; i++) {
+            moves.add(new BookMove(moveAt(i), weightAt(i)));
+        }
+        return moves;
+    }
+
+    /**
+     * Looks up the game's current position, keeping only moves that are legal in it, so that a
+     * hash collision or a book written with different rules cannot produce an illegal move
+     *
+     * @param game the position, with the team to move
+     * @return the book's legal moves, or an empty list if the position is not in the book
+     */
+    public List<BookMove> lookup(ChessGame game) {
+        List<BookMove> moves = lookup(game.getZobristKey());
+        if (moves.isEmpty()) {
+            return moves;
+        }
+        MoveList legal = new MoveList();
+        game.legalMoves(legal);
+        moves.removeIf(move -> !legal.contains(move.move()));
+        return moves;
+    }
+
+    /**
+     * Picks one of the book's moves at random, each with chance in proportion to its weight
+     *
+     * @param game   the position, with the team to move
+     * @param random the source of randomness
+     * @return the packed move, or {@link Move#NONE} if the book has no move with any weight
+     */
+    public int pickMove(ChessGame game, RandomGenerator random) {
+        List<BookMove> moves = lookup(game);
+        int total = 0;
+        for (BookMove move : moves) {
+            total += move.weight();
+        }
+        if (total == 0) {
+            return Move.NONE;
+        }
+        int pick = random.nextInt(total);
+        for (BookMove move : moves) {
+            pick -= move.weight();
+            if (pick < 0) {
+                return move.move();
+            }
+        }
+        throw new AssertionError("Weights changed while picking");
+    }
+
+    /**
+     * @param game the position, with the team to move
+     * @return the book's most heavily weighted move, or {@link Move#NONE} if the position is not
+     * in the book
+     */
+    public int bestMove(ChessGame game) {
+        int best = Move.NONE;
+        int bestWeight = -1;
+        for (BookMove move : lookup(game)) {
+            if (move.weight() > bestWeight) {
+                best = move.move();
+                bestWeight = move.weight();
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @return the index of the first entry whose key is not below {@code key}, or {@link #size}
+     */
+    private int firstEntry(long key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keyAt(middle) < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private long keyAt(int index) {
+        return entries.getLong(index * ENTRY_BYTES);
+    }
+
+    private int moveAt(int index) {
+        return Short.toUnsignedInt(entries.getShort(index * ENTRY_BYTES + 8));
+    }
+
+    private int weightAt(int index) {
+        return Short.toUnsignedInt(entries.getShort(index * ENTRY_BYTES + 10));
+    }
+}
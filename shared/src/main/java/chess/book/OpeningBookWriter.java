@@ -0,0 +1,100 @@
+package chess.book;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+import chess.Move;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Collects weighted moves by position and writes them as an {@link OpeningBook} file.
+ * <p>
+ * Adding the same move for the same position again adds to its weight, so a book can be built by
+ * feeding in many games and letting popular moves collect more weight. Weights are capped at
+ * 65535, the most an entry can hold.
+ */
+public class OpeningBookWriter {
+    static final int MAX_WEIGHT = 0xFFFF;
+
+    // Ordered by key, then move, as the file must be
+    private final TreeMap<Long, TreeMap<Integer, Integer>> positions = new TreeMap<>();
+    private int size;
+
+    /**
+     * @param key    a position's {@link ChessGame#getZobristKey()}
+     * @param move   a packed {@link Move} to play there
+     * @param weight how much to add to the move's weight
+     */
+    public void add(long key, int move, int weight) {
+        if (weight < 0) {
+            throw new IllegalArgumentException("Negative weight " + weight);
+        }
+        Map<Integer, Integer> moves = positions.computeIfAbsent(key, k -> new TreeMap<>());
+        if (!moves.containsKey(move)) {
+            size++;
+        }
+        // Capped before merging too, so that a first weight past the limit is not truncated on write
+        moves.merge(move, Math.min(weight, MAX_WEIGHT), (old, added) -> Math.min(old + added, MAX_WEIGHT));
+    }
+
+    /**
+     * @param game   the position, with the team to move
+     * @param move   a move to play there
+     * @param weight how much to add to the move's weight
+     */
+    public void add(ChessGame game, ChessMove move, int weight) {
+        add(game.getZobristKey(), Move.fromChessMove(move), weight);
+    }
+
+    /**
+     * Plays a line of moves from a position, adding each move for the position it was played in
+     *
+     * @param start  the position the line starts from; it is not changed
+     * @param line   the moves, alternating between the teams
+     * @param weight how much to add to each move's weight
+     * @throws InvalidMoveException if a move in the line is illegal
+     */
+    public void addLine(ChessGame start, List<ChessMove> line, int weight) throws InvalidMoveException {
+        ChessGame game = new ChessGame(start);
+        for (ChessMove move : line) {
+            long key = game.getZobristKey();
+            game.makeMove(move);
+            add(key, Move.fromChessMove(move), weight);
+        }
+    }
+
+    /**
+     * @return how many entries, one per position and move, have been added
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Writes the book, replacing any existing file
+     *
+     * @param file where to write it
+     * @throws IOException if the file cannot be written
+     */
+    public void write(Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(OpeningBook.MAGIC);
+            out.writeInt(OpeningBook.VERSION);
+            for (Map.Entry<Long, TreeMap<Integer, Integer>> position : positions.entrySet()) {
+                for (Map.Entry<Integer, Integer> move : position.getValue().entrySet()) {
+                    out.writeLong(position.getKey());
+                    out.writeShort(move.getKey());
+                    out.writeShort(move.getValue());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package chess.replay;
+
+import java.util.List;
+
+/**
+ * A stored game to replay: where it started and the moves played from there
+ *
+ * @param gameId   identifies the game in the results
+ * @param startFen the starting position in FEN, or null for the standard starting position
+ * @param moves    the moves in coordinate notation, such as {@code e2e4} or {@code e7e8q}
+ */
+public record GameRecord(String gameId, String startFen, List<String> moves) {
+
+    public GameRecord {
+        moves = List.copyOf(moves);
+    }
+
+    /**
+     * @return a game from the standard starting position
+     */
+    public static GameRecord fromStart(String gameId, List<String> moves) {
+        return new GameRecord(gameId, null, moves);
+    }
+}
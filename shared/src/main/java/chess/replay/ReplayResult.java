@@ -0,0 +1,31 @@
+package chess.replay;
+
+/**
+ * How replaying one {@link GameRecord} went
+ *
+ * @param gameId      the record's game ID
+ * @param pliesPlayed how many moves were legal and applied before the replay stopped
+ * @param illegalMove the first move that could not be played, or null if every move could
+ * @param error       why the replay stopped early, or null if it did not
+ * @param ending      how the game stands after the last move that was played
+ * @param finalFen    the position after the last move that was played, or null if the
+ *                    starting position could not be read
+ */
+public record ReplayResult(String gameId, int pliesPlayed, String illegalMove, String error, Ending ending,
+                           String finalFen) {
+
+    public enum Ending {
+        ONGOING,
+        CHECKMATE,
+        STALEMATE,
+        /** Drawn by repetition, the fifty-move rule or insufficient material */
+        DRAW
+    }
+
+    /**
+     * @return True if every move in the record was legal
+     */
+    public boolean isValid() {
+        return error == null;
+    }
+}
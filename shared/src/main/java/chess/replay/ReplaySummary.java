@@ -0,0 +1,30 @@
+package chess.replay;
+
+/**
+ * Totals for one {@link ReplayValidator#validate} run
+ *
+ * @param games        how many games were replayed
+ * @param invalid      how many of them had an illegal move or an unreadable starting position
+ * @param plies        how many moves were applied across all games
+ * @param elapsedNanos wall time of the whole run, including reading the input
+ */
+public record ReplaySummary(long games, long invalid, long plies, long elapsedNanos) {
+
+    public long valid() {
+        return games - invalid;
+    }
+
+    public double gamesPerSecond() {
+        return elapsedNanos == 0 ? 0 : games * 1e9 / elapsedNanos;
+    }
+
+    public double pliesPerSecond() {
+        return elapsedNanos == 0 ? 0 : plies * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%,d games (%,d invalid), %,d plies in %.2f s: %,.0f games/s, %,.0f plies/s",
+                games, invalid, plies, elapsedNanos / 1e9, gamesPerSecond(), pliesPerSecond());
+    }
+}
@@ -0,0 +1,169 @@
+package chess.replay;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+
+import java.util.Iterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Replays stored games in bulk to check that every move in them is legal, for example after a
+ * rules fix.
+ * <p>
+ * Games are read from the input a batch at a time, and each batch is split across a
+ * {@link ForkJoinPool} until the pieces are small enough to replay directly. Results are handed
+ * to the caller's consumer on the caller's thread, in input order, before the next batch is
+ * read, so memory use depends on the batch size and not on how many games there are.
+ * <p>
+ * Moves are played with {@link ChessGame#makeMove(ChessMove)}, so a game passes here exactly
+ * when it would be accepted move by move in play. The worker threads are kept between runs;
+ * {@link #close()} releases them.
+ */
+public class ReplayValidator implements AutoCloseable {
+    public static final int DEFAULT_BATCH_SIZE = 1024;
+
+    /** Below this many games a task replays them itself rather than splitting further */
+    private static final int SPLIT_THRESHOLD = 8;
+
+    private final ForkJoinPool pool;
+    private final int batchSize;
+
+    public ReplayValidator() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * @param parallelism how many games to replay at once
+     * @param batchSize   how many games to read ahead and hold results for
+     */
+    public ReplayValidator(int parallelism, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        this.pool = new ForkJoinPool(parallelism);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * @see #validate(Iterator, Consumer)
+     */
+    public ReplaySummary validate(Stream<GameRecord> games, Consumer<? super ReplayResult> results) {
+        return validate(games.iterator(), results);
+    }
+
+    /**
+     * Replays every game from the input
+     *
+     * @param games   the games, read one batch at a time
+     * @param results receives each game's result, in input order, on the calling thread
+     * @return totals and throughput for the run
+     */
+    public ReplaySummary validate(Iterator<GameRecord> games, Consumer<? super ReplayResult> results) {
+        long start = System.nanoTime();
+        long count = 0;
+        long invalid = 0;
+        long plies = 0;
+        GameRecord[] batch = new GameRecord[batchSize];
+        ReplayResult[] replayed = new ReplayResult[batchSize];
+        while (games.hasNext()) {
+            int size = 0;
+            while (size < batchSize && games.hasNext()) {
+                batch[size++] = games.next();
+            }
+            pool.invoke(new ReplayTask(batch, replayed, 0, size));
+            for (int i = 0; i < size; i++) {
+                ReplayResult result = replayed[i];
+                count++;
+                plies += result.pliesPlayed();
+                if (!result.isValid()) {
+                    invalid++;
+                }
+                batch[i] = null;
+                replayed[i] = null;
+                results.accept(result);
+            }
+        }
+        return new ReplaySummary(count, invalid, plies, System.nanoTime() - start);
+    }
+
+    /**
+     * Replays one game on the calling thread
+     *
+     * @param record the game
+     * @return how the replay went
+     */
+    public static ReplayResult replay(GameRecord record) {
+        ChessGame game;
+        try {
+            game = record.startFen() == null ? new ChessGame() : ChessGame.fromFen(record.startFen());
+        } catch (IllegalArgumentException e) {
+            return new ReplayResult(record.gameId(), 0, null, e.getMessage(), ReplayResult.Ending.ONGOING, null);
+        }
+
+        int played = 0;
+        for (String text : record.moves()) {
+            String error = null;
+            try {
+                game.makeMove(ChessMove.parse(text));
+            } catch (IllegalArgumentException e) {
+                error = e.getMessage();
+            } catch (InvalidMoveException e) {
+                error = "Illegal move " + text + " at ply " + (played + 1);
+            }
+            if (error != null) {
+                return new ReplayResult(record.gameId(), played, text, error, endingOf(game), game.toFen());
+            }
+            played++;
+        }
+        return new ReplayResult(record.gameId(), played, null, null, endingOf(game), game.toFen());
+    }
+
+    private static ReplayResult.Ending endingOf(ChessGame game) {
+        ChessGame.TeamColor toMove = game.getTeamTurn();
+        if (game.isInCheckmate(toMove)) {
+            return ReplayResult.Ending.CHECKMATE;
+        }
+        if (game.isInStalemate(toMove)) {
+            return ReplayResult.Ending.STALEMATE;
+        }
+        return game.isDraw() ? ReplayResult.Ending.DRAW : ReplayResult.Ending.ONGOING;
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    /**
+     * Replays a range of a batch, splitting it in half while it is large
+     */
+    private static final class ReplayTask extends RecursiveAction {
+        private final GameRecord[] games;
+        private final ReplayResult[] results;
+        private final int from;
+        private final int to;
+
+        private ReplayTask(GameRecord[] games, ReplayResult[] results, int from, int to) {
+            this.games = games;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SPLIT_THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    results[i] = replay(games[i]);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ReplayTask(games, results, from, middle), new ReplayTask(games, results, middle, to));
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package chess.search;
+
+import chess.ChessGame;
+
+/**
+ * Scores a position for {@link Search}. Implementations must be cheap: the search calls this at
+ * every leaf.
+ */
+public interface Evaluator {
+    /**
+     * @param game the position to score
+     * @return the score in centipawns from the point of view of the team whose turn it is
+     */
+    int evaluate(ChessGame game);
+}
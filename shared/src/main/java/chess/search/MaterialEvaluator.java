@@ -0,0 +1,16 @@
+package chess.search;
+
+import chess.ChessGame;
+
+/**
+ * Counts material with the usual centipawn values. The board keeps the balance up to date as
+ * pieces move, so this is a single read.
+ */
+public class MaterialEvaluator implements Evaluator {
+
+    @Override
+    public int evaluate(ChessGame game) {
+        int score = game.getBoard().getMaterialBalance();
+        return game.getTeamTurn() == ChessGame.TeamColor.WHITE ? score : -score;
+    }
+}
@@ -0,0 +1,138 @@
+package chess.search;
+
+import chess.ChessGame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Searches one position on several threads at once using Lazy SMP.
+ * <p>
+ * Every thread runs an ordinary {@link Search} of the same root and they share nothing but a
+ * {@link TranspositionTable}. The threads help each other through the table: a result one of them
+ * stores cuts off or orders moves for the others. Helper threads skip depths on staggered
+ * schedules so that they run ahead of the main thread rather than duplicating its iteration.
+ * <p>
+ * The main thread runs on the caller and obeys the {@link SearchLimits}; node limits count its
+ * own nodes. When it finishes, the helpers are stopped and the main thread's result stands. How
+ * far a helper got before being stopped depends on timing, so a helper's deeper iteration is not
+ * trusted over it; a helper only replaces it with a strictly better score at the same depth,
+ * and of helpers with equal scores the lowest-numbered. Node counts are summed over all threads.
+ * <p>
+ * If the main thread's search fails, the helpers are stopped and cancelled before the failure is
+ * passed on. Worker threads are kept between searches; {@link #close()} releases them.
+ */
+public class ParallelSearch implements AutoCloseable {
+    private final List<Search> searches = new ArrayList<>();
+    private final TranspositionTable table;
+    private final ExecutorService helpers;
+
+    /**
+     * @param threads how many threads to search with, including the caller's
+     */
+    public ParallelSearch(int threads) {
+        this(threads, PieceSquareEvaluator::new, new TranspositionTable());
+    }
+
+    /**
+     * @param threads    how many threads to search with, including the caller's
+     * @param evaluators makes one evaluator per thread
+     * @param table      the table all threads share
+     */
+    public ParallelSearch(int threads, Supplier<? extends Evaluator> evaluators, TranspositionTable table) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Need at least one thread");
+        }
+        this.table = table;
+        for (int i = 0; i < threads; i++) {
+            searches.add(new Search(evaluators.get(), table));
+        }
+        helpers = threads == 1 ? null : Executors.newFixedThreadPool(threads - 1, runnable -> {
+            Thread thread = new Thread(runnable, "search-helper");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public int getThreads() {
+        return searches.size();
+    }
+
+    public TranspositionTable getTranspositionTable() {
+        return table;
+    }
+
+    /**
+     * Searches a copy of the game on every thread; the game itself is left as it was
+     *
+     * @param game   the position to search, with the team to move
+     * @param limits when the main thread should stop deepening
+     * @return the merged result, with nodes summed over all threads
+     */
+    public SearchResult search(ChessGame game, SearchLimits limits) {
+        table.newSearch();
+        AtomicBoolean stop = new AtomicBoolean();
+        SearchLimits helperLimits = SearchLimits.depth(limits.maxDepth());
+        List<Future<SearchResult>> running = new ArrayList<>();
+        for (int i = 1; i < searches.size(); i++) {
+            Search helper = searches.get(i);
+            int index = i;
+            running.add(helpers.submit(() -> {
+                // A helper abandoned by a failed search may still be winding down on this Search
+                synchronized (helper) {
+                    return helper.search(game, helperLimits, index, stop);
+                }
+            }));
+        }
+
+        long start = System.nanoTime();
+        SearchResult best;
+        boolean finished = false;
+        try {
+            best = searches.get(0).search(game, limits, 0, stop);
+            finished = true;
+        } finally {
+            // Helpers only obey the depth limit, so they must be told to stop however this ends
+            stop.set(true);
+            if (!finished) {
+                for (Future<SearchResult> future : running) {
+                    future.cancel(true);
+                }
+            }
+        }
+
+        long nodes = best.nodes();
+        for (Future<SearchResult> future : running) {
+            SearchResult result = join(future);
+            nodes += result.nodes();
+            if (result.depth() == best.depth() && result.score() > best.score()) {
+                best = result;
+            }
+        }
+        return new SearchResult(best.bestMove(), best.score(), best.depth(), nodes, System.nanoTime() - start);
+    }
+
+    private static SearchResult join(Future<SearchResult> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for search helpers", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Search helper failed", e.getCause());
+        }
+    }
+
+    @Override
+    public void close() {
+        if (helpers != null) {
+            helpers.shutdownNow();
+        }
+    }
+}
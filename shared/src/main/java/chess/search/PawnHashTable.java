@@ -0,0 +1,80 @@
+package chess.search;
+
+/**
+ * A small direct-mapped cache of pawn structure scores keyed by {@link chess.ChessBoard#getPawnKey()}.
+ * <p>
+ * Each slot holds one key and its score, and a new entry simply replaces whatever was in its
+ * slot, so the table never grows past the size it was made with. It is meant to be owned by one
+ * evaluator on one thread; the counters are plain fields.
+ */
+public class PawnHashTable {
+    public static final int DEFAULT_ENTRIES = 1 << 14;
+
+    private final long[] keys;
+    private final int[] scores;
+    private final int indexMask;
+
+    private long hits;
+    private long misses;
+
+    public PawnHashTable() {
+        this(DEFAULT_ENTRIES);
+    }
+
+    /**
+     * @param entries how many pawn structures to remember; rounded down to a power of two
+     */
+    public PawnHashTable(int entries) {
+        if (entries < 1) {
+            throw new IllegalArgumentException("Table needs at least one entry");
+        }
+        int size = Integer.highestOneBit(entries);
+        // Empty slots hold key 0 with score 0, which is also the right answer for no pawns at all
+        keys = new long[size];
+        scores = new int[size];
+        indexMask = size - 1;
+    }
+
+    /**
+     * @return the pawn structure score from white's point of view, computed on a miss
+     */
+    int probe(long pawnKey, long whitePawns, long blackPawns) {
+        int slot = (int) pawnKey & indexMask;
+        if (keys[slot] == pawnKey) {
+            hits++;
+            return scores[slot];
+        }
+        misses++;
+        int score = PawnStructure.evaluate(whitePawns, blackPawns);
+        keys[slot] = pawnKey;
+        scores[slot] = score;
+        return score;
+    }
+
+    public int capacity() {
+        return keys.length;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public double hitRate() {
+        long probes = hits + misses;
+        return probes == 0 ? 0 : (double) hits / probes;
+    }
+
+    public void resetCounters() {
+        hits = 0;
+        misses = 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%,d entries, %,d probes, %.1f%% hits", capacity(), hits + misses, hitRate() * 100);
+    }
+}
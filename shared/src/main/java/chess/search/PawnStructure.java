@@ -0,0 +1,65 @@
+package chess.search;
+
+/**
+ * Scores doubled, isolated and passed pawns from the two pawn bitboards alone. It works file by
+ * file and pawn by pawn with precomputed masks, so it touches at most 8 files and 16 pawns.
+ */
+final class PawnStructure {
+    static final int DOUBLED = -15;
+    static final int ISOLATED = -12;
+    /** Bonus for a passed pawn by rank counted from its own side, 0 to 7 */
+    static final int[] PASSED = {0, 5, 10, 20, 35, 60, 100, 0};
+
+    private static final long[] FILES = new long[8];
+    private static final long[] ADJACENT_FILES = new long[8];
+    // Squares ahead of a pawn, on its own and the adjacent files, by color ordinal and square
+    private static final long[][] PASSED_SPANS = new long[2][64];
+
+    static {
+        for (int file = 0; file < 8; file++) {
+            FILES[file] = 0x0101010101010101L << file;
+        }
+        for (int file = 0; file < 8; file++) {
+            ADJACENT_FILES[file] = (file > 0 ? FILES[file - 1] : 0) | (file < 7 ? FILES[file + 1] : 0);
+        }
+        for (int square = 0; square < 64; square++) {
+            int rank = square >>> 3;
+            long span = FILES[square & 7] | ADJACENT_FILES[square & 7];
+            long above = rank == 7 ? 0 : -1L << ((rank + 1) * 8);
+            long below = rank == 0 ? 0 : -1L >>> ((8 - rank) * 8);
+            PASSED_SPANS[0][square] = span & above;
+            PASSED_SPANS[1][square] = span & below;
+        }
+    }
+
+    private PawnStructure() {
+    }
+
+    /**
+     * @return the pawn structure score in centipawns from white's point of view
+     */
+    static int evaluate(long whitePawns, long blackPawns) {
+        return side(whitePawns, blackPawns, 0) - side(blackPawns, whitePawns, 1);
+    }
+
+    private static int side(long own, long enemy, int color) {
+        int score = 0;
+        for (int file = 0; file < 8; file++) {
+            int count = Long.bitCount(own & FILES[file]);
+            if (count > 1) {
+                score += DOUBLED * (count - 1);
+            }
+            if (count > 0 && (own & ADJACENT_FILES[file]) == 0) {
+                score += ISOLATED * count;
+            }
+        }
+        for (long pawns = own; pawns != 0; pawns &= pawns - 1) {
+            int square = Long.numberOfTrailingZeros(pawns);
+            if ((PASSED_SPANS[color][square] & enemy) == 0) {
+                int rank = square >>> 3;
+                score += PASSED[color == 0 ? rank : 7 - rank];
+            }
+        }
+        return score;
+    }
+}
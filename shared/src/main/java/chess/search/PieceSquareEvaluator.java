@@ -0,0 +1,71 @@
+package chess.search;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+
+/**
+ * Scores material, piece placement and pawn structure.
+ * <p>
+ * Material and piece-square totals are kept by the {@link ChessBoard} itself as pieces are
+ * added, moved and removed, so reading them costs a few field loads. Placement is blended from
+ * middlegame to endgame tables as material comes off, which walks the king to the centre once
+ * the queens are gone. Pawn structure is worked out from the pawn bitboards and cached in a
+ * {@link PawnHashTable}, since the pawns rarely change between neighbouring positions.
+ * <p>
+ * Each instance owns its pawn table, so use one evaluator per search thread.
+ */
+public class PieceSquareEvaluator implements Evaluator {
+    private final PawnHashTable pawnTable;
+
+    public PieceSquareEvaluator() {
+        this(new PawnHashTable());
+    }
+
+    public PieceSquareEvaluator(PawnHashTable pawnTable) {
+        this.pawnTable = pawnTable;
+    }
+
+    /**
+     * The terms of an evaluation, in centipawns from white's point of view
+     *
+     * @param phase the board's game phase, 24 at the start down to 0 with only kings and pawns
+     */
+    public record Breakdown(int material, int placement, int pawnStructure, int phase) {
+        public int total() {
+            return material + placement + pawnStructure;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("material %d, placement %d, pawn structure %d (phase %d) = %d",
+                    material, placement, pawnStructure, phase, total());
+        }
+    }
+
+    @Override
+    public int evaluate(ChessGame game) {
+        ChessBoard board = game.getBoard();
+        int score = board.getMaterialBalance() + board.getPlacementScore() + pawnStructure(board);
+        return game.getTeamTurn() == ChessGame.TeamColor.WHITE ? score : -score;
+    }
+
+    /**
+     * @return each term of the evaluation, for debugging and tuning
+     */
+    public Breakdown breakdown(ChessGame game) {
+        ChessBoard board = game.getBoard();
+        return new Breakdown(board.getMaterialBalance(), board.getPlacementScore(), pawnStructure(board),
+                board.getGamePhase());
+    }
+
+    public PawnHashTable getPawnTable() {
+        return pawnTable;
+    }
+
+    int pawnStructure(ChessBoard board) {
+        return pawnTable.probe(board.getPawnKey(),
+                board.getPieces(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN),
+                board.getPieces(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
+    }
+}
@@ -0,0 +1,398 @@
+package chess.search;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.GameState;
+import chess.Move;
+import chess.MoveList;
+import chess.MoveUndo;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Picks a move by negamax alpha-beta search with iterative deepening.
+ * <p>
+ * Each iteration searches one ply deeper than the last, trying the previous iteration's best
+ * move first. At the horizon a quiescence search keeps resolving captures and promotions, so
+ * positions are only scored once they are quiet. Moves are ordered with captures first by
+ * most valuable victim, least valuable attacker (MVV-LVA), then the two killer moves that last
+ * caused a cutoff at the same ply, then quiet moves by how often they have caused cutoffs
+ * (history).
+ * <p>
+ * Results are cached in a {@link TranspositionTable}: a position already searched deeply enough
+ * is answered from the table, and otherwise its stored best move is tried first. Tables may be
+ * shared between searches and threads.
+ * <p>
+ * A position that repeats one from earlier in the game or the search, or that reaches the
+ * fifty-move limit, scores as a draw.
+ * <p>
+ * All per-ply storage is allocated once, so a search does not allocate after it starts. An
+ * instance is not thread safe; use one per thread.
+ */
+public class Search {
+    public static final int MATE = 32000;
+    public static final int INFINITY = 32001;
+    public static final int MAX_PLY = 64;
+
+    // MVV-LVA ranks by PieceType ordinal: KING, QUEEN, BISHOP, KNIGHT, ROOK, PAWN
+    private static final int[] ORDER_RANK = {6, 5, 3, 2, 4, 1};
+    private static final int HASH_MOVE_SCORE = 1_000_000;
+    private static final int CAPTURE_SCORE = 100_000;
+    private static final int FIRST_KILLER_SCORE = 90_000;
+    private static final int SECOND_KILLER_SCORE = 80_000;
+    private static final int HISTORY_LIMIT = 50_000;
+    private static final int TIME_CHECK_INTERVAL = 1024;
+
+    // Lazy SMP helpers skip depths in a staggered pattern so that they spread out over the
+    // next few iterations instead of all searching the same one
+    private static final int[] SKIP_SIZE = {1, 1, 2, 2, 2, 2, 3, 3, 3, 3, 3, 3, 4, 4, 4, 4, 4, 4, 4, 4};
+    private static final int[] SKIP_PHASE = {0, 1, 0, 1, 2, 3, 0, 1, 2, 3, 4, 5, 0, 1, 2, 3, 4, 5, 6, 7};
+
+    private final Evaluator evaluator;
+    private final TranspositionTable table;
+    private final MoveList[] movesByPly = new MoveList[MAX_PLY];
+    private final int[][] orderByPly = new int[MAX_PLY][256];
+    private final MoveUndo[] undoByPly = new MoveUndo[MAX_PLY];
+    private final int[][] killers = new int[MAX_PLY][2];
+    private final int[][][] history = new int[2][64][64];
+    private final AtomicBoolean neverStop = new AtomicBoolean();
+
+    private ChessGame game;
+    private ChessBoard board;
+    private long nodes;
+    private long nodeLimit;
+    private long deadline;
+    private boolean aborted;
+    private int completedDepth;
+    private int previousBestMove;
+    private int rootBestMove;
+    private int helper;
+    private AtomicBoolean stop;
+
+    public Search() {
+        this(new PieceSquareEvaluator());
+    }
+
+    public Search(Evaluator evaluator) {
+        this(evaluator, new TranspositionTable());
+    }
+
+    public Search(Evaluator evaluator, TranspositionTable table) {
+        this.evaluator = evaluator;
+        this.table = table;
+        for (int ply = 0; ply < MAX_PLY; ply++) {
+            movesByPly[ply] = new MoveList();
+            undoByPly[ply] = new MoveUndo();
+        }
+    }
+
+    /**
+     * Searches a copy of the game, so the game itself is left as it was
+     *
+     * @param game   the position to search, with the team to move
+     * @param limits when to stop deepening
+     * @return the best move found and search statistics
+     */
+    public SearchResult search(ChessGame game, SearchLimits limits) {
+        table.newSearch();
+        return search(game, limits, 0, neverStop);
+    }
+
+    /**
+     * Runs one thread of a {@link ParallelSearch}, which starts a new table generation for all
+     * of its threads
+     *
+     * @param helper 0 for the main thread, which searches every depth and always finishes the
+     *               first; helpers skip depths on a staggered schedule and stop as soon as asked
+     * @param stop   raised by the main thread to end the helpers
+     */
+    SearchResult search(ChessGame game, SearchLimits limits, int helper, AtomicBoolean stop) {
+        this.helper = helper;
+        this.stop = stop;
+        this.game = new ChessGame(game);
+        this.board = this.game.getBoard();
+        for (int[] pair : killers) {
+            Arrays.fill(pair, Move.NONE);
+        }
+        for (int[][] byFrom : history) {
+            for (int[] byTo : byFrom) {
+                Arrays.fill(byTo, 0);
+            }
+        }
+
+        long start = System.nanoTime();
+        nodes = 0;
+        nodeLimit = limits.maxNodes() > 0 ? limits.maxNodes() : Long.MAX_VALUE;
+        deadline = limits.maxTimeMillis() > 0 ? start + limits.maxTimeMillis() * 1_000_000 : Long.MAX_VALUE;
+        aborted = false;
+        completedDepth = 0;
+        previousBestMove = Move.NONE;
+
+        int bestScore = 0;
+        int maxDepth = Math.min(limits.maxDepth(), MAX_PLY - 1);
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            if (skipsDepth(depth)) {
+                continue;
+            }
+            rootBestMove = Move.NONE;
+            int score = negamax(depth, 0, -INFINITY, INFINITY);
+            if (aborted) {
+                break;
+            }
+            previousBestMove = rootBestMove;
+            bestScore = score;
+            completedDepth = depth;
+            if (Math.abs(score) >= MATE - MAX_PLY) {
+                break;
+            }
+        }
+        return new SearchResult(previousBestMove, bestScore, completedDepth, nodes, System.nanoTime() - start);
+    }
+
+    private boolean skipsDepth(int depth) {
+        if (helper == 0) {
+            return false;
+        }
+        int index = (helper - 1) % SKIP_SIZE.length;
+        return ((depth + SKIP_PHASE[index]) / SKIP_SIZE[index]) % 2 != 0;
+    }
+
+    private int negamax(int depth, int ply, int alpha, int beta) {
+        if (outOfBudget()) {
+            return 0;
+        }
+        if (depth <= 0) {
+            return quiesce(ply, alpha, beta);
+        }
+        nodes++;
+        if (ply >= MAX_PLY - 1) {
+            return evaluator.evaluate(game);
+        }
+        if (ply > 0 && (game.isRepetition()
+                || GameState.halfmoveClock(game.getGameState()) >= GameState.FIFTY_MOVE_PLIES)) {
+            return 0;
+        }
+
+        long key = game.getZobristKey();
+        long entry = table.probe(key);
+        int hashMove = Move.NONE;
+        if (entry != TranspositionTable.MISS) {
+            hashMove = TranspositionTable.move(entry);
+            if (ply > 0 && TranspositionTable.depth(entry) >= depth) {
+                int score = TranspositionTable.score(entry, ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER_BOUND && score >= beta)
+                        || (bound == TranspositionTable.UPPER_BOUND && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+        if (ply == 0 && previousBestMove != Move.NONE) {
+            hashMove = previousBestMove;
+        }
+
+        MoveList moves = movesByPly[ply];
+        game.legalMoves(moves);
+        if (moves.isEmpty()) {
+            return game.isInCheck(game.getTeamTurn()) ? -MATE + ply : 0;
+        }
+        int[] order = orderByPly[ply];
+        scoreMoves(moves, order, ply, hashMove);
+
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        int bestMove = Move.NONE;
+        MoveUndo undo = undoByPly[ply];
+        int color = game.getTeamTurn().ordinal();
+        for (int i = 0; i < moves.size(); i++) {
+            int move = pickNext(moves, order, i);
+            game.makeMove(move, undo);
+            int score = -negamax(depth - 1, ply + 1, -beta, -alpha);
+            game.unmakeMove(undo);
+            if (aborted) {
+                return 0;
+            }
+
+            if (score > best) {
+                best = score;
+                bestMove = move;
+                if (ply == 0) {
+                    rootBestMove = move;
+                }
+            }
+            if (score > alpha) {
+                alpha = score;
+            }
+            if (alpha >= beta) {
+                if (undo.getCapturedPiece() == null && undo.getPromotion() == null) {
+                    rememberCutoff(move, ply, depth, color);
+                }
+                break;
+            }
+        }
+
+        if (best <= originalAlpha) {
+            // Every move failed low, so none of them is known to be best
+            table.store(key, Move.NONE, best, depth, TranspositionTable.UPPER_BOUND, ply);
+        } else {
+            int bound = best >= beta ? TranspositionTable.LOWER_BOUND : TranspositionTable.EXACT;
+            table.store(key, bestMove, best, depth, bound, ply);
+        }
+        return best;
+    }
+
+    /**
+     * Searches only captures and promotions until the position is quiet, letting the side to move
+     * "stand pat" on the static score if every capture is worse. In check there is no standing
+     * pat, so every evasion is searched.
+     */
+    private int quiesce(int ply, int alpha, int beta) {
+        if (outOfBudget()) {
+            return 0;
+        }
+        nodes++;
+        if (ply >= MAX_PLY - 1) {
+            return evaluator.evaluate(game);
+        }
+
+        MoveList moves = movesByPly[ply];
+        int best;
+        if (game.isInCheck(game.getTeamTurn())) {
+            game.legalMoves(moves);
+            if (moves.isEmpty()) {
+                return -MATE + ply;
+            }
+            best = -INFINITY;
+        } else {
+            best = evaluator.evaluate(game);
+            if (best >= beta) {
+                return best;
+            }
+            alpha = Math.max(alpha, best);
+            game.legalCaptures(moves);
+        }
+        int[] order = orderByPly[ply];
+        scoreMoves(moves, order, ply, Move.NONE);
+
+        MoveUndo undo = undoByPly[ply];
+        for (int i = 0; i < moves.size(); i++) {
+            int move = pickNext(moves, order, i);
+            game.makeMove(move, undo);
+            int score = -quiesce(ply + 1, -beta, -alpha);
+            game.unmakeMove(undo);
+            if (aborted) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+            }
+            if (score > alpha) {
+                alpha = score;
+            }
+            if (alpha >= beta) {
+                break;
+            }
+        }
+        return best;
+    }
+
+    public TranspositionTable getTranspositionTable() {
+        return table;
+    }
+
+    /**
+     * The main thread's first iteration always runs to completion, so there is always a move
+     * to return.
+     *
+     * @return True once the node or time budget is spent
+     */
+    private boolean outOfBudget() {
+        if (aborted) {
+            return true;
+        }
+        if (helper != 0 && stop.get()) {
+            aborted = true;
+            return true;
+        }
+        if (completedDepth == 0 && helper == 0) {
+            return false;
+        }
+        if (nodes >= nodeLimit || (nodes % TIME_CHECK_INTERVAL == 0 && System.nanoTime() >= deadline)) {
+            aborted = true;
+        }
+        return aborted;
+    }
+
+    private void scoreMoves(MoveList moves, int[] order, int ply, int hashMove) {
+        int color = game.getTeamTurn().ordinal();
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            int from = Move.from(move);
+            int to = Move.to(move);
+            ChessPiece victim = board.getPiece(to);
+            ChessPiece.PieceType promotion = Move.promotion(move);
+
+            if (move == hashMove) {
+                order[i] = HASH_MOVE_SCORE;
+            } else if (victim != null || promotion != null || isEnPassant(from, to)) {
+                int attacker = ORDER_RANK[board.getPiece(from).getPieceType().ordinal()];
+                // An empty destination is either a quiet promotion or an en passant pawn capture
+                int victimRank = victim != null ? ORDER_RANK[victim.getPieceType().ordinal()]
+                        : promotion != null ? 0 : ORDER_RANK[ChessPiece.PieceType.PAWN.ordinal()];
+                int promotionRank = promotion == null ? 0 : ORDER_RANK[promotion.ordinal()];
+                order[i] = CAPTURE_SCORE + (victimRank + promotionRank) * 8 - attacker;
+            } else if (move == killers[ply][0]) {
+                order[i] = FIRST_KILLER_SCORE;
+            } else if (move == killers[ply][1]) {
+                order[i] = SECOND_KILLER_SCORE;
+            } else {
+                order[i] = history[color][from][to];
+            }
+        }
+    }
+
+    private boolean isEnPassant(int from, int to) {
+        return (from & 7) != (to & 7) && board.getPiece(from).getPieceType() == ChessPiece.PieceType.PAWN;
+    }
+
+    /**
+     * Selection sort one step at a time: most nodes cut off after the first few moves, so
+     * sorting the whole list up front would be wasted work.
+     */
+    private static int pickNext(MoveList moves, int[] order, int index) {
+        int best = index;
+        for (int i = index + 1; i < moves.size(); i++) {
+            if (order[i] > order[best]) {
+                best = i;
+            }
+        }
+        int move = moves.get(best);
+        if (best != index) {
+            moves.set(best, moves.get(index));
+            moves.set(index, move);
+            int score = order[best];
+            order[best] = order[index];
+            order[index] = score;
+        }
+        return move;
+    }
+
+    private void rememberCutoff(int move, int ply, int depth, int color) {
+        if (killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+        int[] byTo = history[color][Move.from(move)];
+        byTo[Move.to(move)] += depth * depth;
+        if (byTo[Move.to(move)] > HISTORY_LIMIT) {
+            for (int[] row : history[color]) {
+                for (int to = 0; to < 64; to++) {
+                    row[to] >>= 1;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package chess.search;
+
+/**
+ * When a {@link Search} should stop. The search deepens one ply at a time until it completes
+ * {@code maxDepth}, or until it has visited {@code maxNodes} positions or run for
+ * {@code maxTimeMillis}; a limit of 0 means no limit. The first ply is always finished so that
+ * there is a move to play.
+ */
+public record SearchLimits(int maxDepth, long maxNodes, long maxTimeMillis) {
+    public SearchLimits {
+        if (maxDepth < 1) {
+            throw new IllegalArgumentException("Depth must be at least 1");
+        }
+        if (maxNodes < 0 || maxTimeMillis < 0) {
+            throw new IllegalArgumentException("Node and time limits cannot be negative");
+        }
+    }
+
+    public static SearchLimits depth(int maxDepth) {
+        return new SearchLimits(maxDepth, 0, 0);
+    }
+
+    public static SearchLimits nodes(long maxNodes) {
+        return new SearchLimits(Search.MAX_PLY, maxNodes, 0);
+    }
+
+    public static SearchLimits time(long maxTimeMillis) {
+        return new SearchLimits(Search.MAX_PLY, 0, maxTimeMillis);
+    }
+}
@@ -0,0 +1,41 @@
+package chess.search;
+
+import chess.ChessMove;
+import chess.Move;
+
+/**
+ * The outcome of a {@link Search}: the best move of the deepest fully searched ply and how much
+ * work it took
+ *
+ * @param bestMove     packed {@link Move}, or {@link Move#NONE} if the side to move has no moves
+ * @param score        centipawns for the side to move; mates score near {@link Search#MATE}
+ * @param depth        the deepest iteration that completed
+ * @param nodes        positions visited, including quiescence
+ * @param elapsedNanos wall time spent searching
+ */
+public record SearchResult(int bestMove, int score, int depth, long nodes, long elapsedNanos) {
+
+    /**
+     * @return the best move, or null if there is none
+     */
+    public ChessMove getBestMove() {
+        return bestMove == Move.NONE ? null : Move.toChessMove(bestMove);
+    }
+
+    /**
+     * @return True if the score is a forced mate for either side
+     */
+    public boolean isMate() {
+        return Math.abs(score) >= Search.MATE - Search.MAX_PLY;
+    }
+
+    public double nodesPerSecond() {
+        return nodes * 1e9 / Math.max(elapsedNanos, 1);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("depth %d score %d move %s nodes %,d (%,.0f nodes/s)",
+                depth, score, bestMove == Move.NONE ? "none" : Move.toString(bestMove), nodes, nodesPerSecond());
+    }
+}
@@ -0,0 +1,242 @@
+package chess.search;
+
+import chess.Move;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed-size hash table of search results, keyed by {@link chess.ChessGame#getZobristKey()},
+ * that any number of search threads can share without locks.
+ * <p>
+ * Each entry is two {@code long}s in one flat array: the packed data, and the position key XORed
+ * with that data. Reads and writes are plain array accesses with no ordering between threads, so
+ * a probe racing a store can see a key from one write and data from another. The Java memory
+ * model does not even promise that a plain {@code long} is read whole, though 64-bit JVMs do so
+ * in practice. None of this is relied on: whatever mix of halves a probe sees, a torn entry no
+ * longer XORs back to the probed key except by a chance as small as a hash collision, so it
+ * reads as a miss rather than as wrong data.
+ * <p>
+ * Data layout: bits 0-15 the packed {@link Move}, 16-31 the score, 32-39 the depth, 40-41 the
+ * {@link #EXACT}/{@link #LOWER_BOUND}/{@link #UPPER_BOUND} bound, and 42-49 the search generation
+ * that stored it. A slot keeps whichever of the old and new entries is more useful: the same
+ * position is always overwritten, and a different one only when the old entry is from an
+ * earlier search or was searched no deeper.
+ */
+public class TranspositionTable {
+    public static final int EXACT = 1;
+    public static final int LOWER_BOUND = 2;
+    public static final int UPPER_BOUND = 3;
+    /** Returned by {@link #probe} when the position is not in the table */
+    public static final long MISS = 0;
+
+    public static final int DEFAULT_MEGABYTES = 16;
+
+    private static final int ENTRY_BYTES = 16;
+    private static final int SCORE_SHIFT = 16;
+    private static final int DEPTH_SHIFT = 32;
+    private static final int BOUND_SHIFT = 40;
+    private static final int GENERATION_SHIFT = 42;
+
+    private final long[] table;
+    private final long indexMask;
+    private volatile int generation;
+
+    private final LongAdder probes = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder collisions = new LongAdder();
+    private final LongAdder stores = new LongAdder();
+
+    public TranspositionTable() {
+        this(DEFAULT_MEGABYTES);
+    }
+
+    /**
+     * @param megabytes memory to use; rounded down to a power-of-two number of entries
+     */
+    public TranspositionTable(int megabytes) {
+        if (megabytes < 1) {
+            throw new IllegalArgumentException("Table needs at least 1 MB");
+        }
+        long entries = Long.highestOneBit(megabytes * 1024L * 1024L / ENTRY_BYTES);
+        if (entries * 2 > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Table is limited to " + (Integer.MAX_VALUE / 64 / 1024) + " MB");
+        }
+        table = new long[(int) entries * 2];
+        indexMask = entries - 1;
+    }
+
+    /**
+     * Marks the start of a new search, so that entries left from earlier searches are replaced
+     * first
+     */
+    public void newSearch() {
+        generation = (generation + 1) & 0xFF;
+    }
+
+    /**
+     * Empties the table and resets its counters
+     */
+    public void clear() {
+        Arrays.fill(table, 0);
+        generation = 0;
+        probes.reset();
+        hits.reset();
+        collisions.reset();
+        stores.reset();
+    }
+
+    /**
+     * @param key the position's Zobrist key
+     * @return the stored data, read with the static accessors, or {@link #MISS}
+     */
+    public long probe(long key) {
+        int slot = slotOf(key);
+        long data = table[slot];
+        long check = table[slot + 1];
+        probes.increment();
+        if (data == MISS) {
+            return MISS;
+        }
+        if ((check ^ data) != key) {
+            collisions.increment();
+            return MISS;
+        }
+        hits.increment();
+        return data;
+    }
+
+    /**
+     * @param ply   distance from the root, used to store mate scores relative to this position
+     * @param bound {@link #EXACT}, {@link #LOWER_BOUND} or {@link #UPPER_BOUND}
+     */
+    public void store(long key, int move, int score, int depth, int bound, int ply) {
+        int slot = slotOf(key);
+        long old = table[slot];
+        boolean samePosition = (table[slot + 1] ^ old) == key;
+        int current = generation;
+        if (old != MISS && !samePosition && generationOf(old) == current && depth < depth(old)) {
+            return;
+        }
+        if (samePosition && move == Move.NONE) {
+            // Keep the best move from a shallower search rather than forgetting it
+            move = move(old);
+        }
+        long data = (move & 0xFFFFL)
+                | ((toStored(score, ply) & 0xFFFFL) << SCORE_SHIFT)
+                | ((long) Math.min(Math.max(depth, 0), 0xFF) << DEPTH_SHIFT)
+                | ((long) bound << BOUND_SHIFT)
+                | ((long) current << GENERATION_SHIFT);
+        table[slot] = data;
+        table[slot + 1] = key ^ data;
+        stores.increment();
+    }
+
+    private int slotOf(long key) {
+        return (int) (key & indexMask) << 1;
+    }
+
+    public static int move(long data) {
+        return (int) (data & 0xFFFF);
+    }
+
+    /**
+     * @param ply distance from the root of the probing search
+     * @return the score, with mate distances measured from the root again
+     */
+    public static int score(long data, int ply) {
+        int score = (short) (data >>> SCORE_SHIFT);
+        if (score >= Search.MATE - Search.MAX_PLY) {
+            return score - ply;
+        }
+        if (score <= -Search.MATE + Search.MAX_PLY) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    public static int depth(long data) {
+        return (int) ((data >>> DEPTH_SHIFT) & 0xFF);
+    }
+
+    public static int bound(long data) {
+        return (int) ((data >>> BOUND_SHIFT) & 0x3);
+    }
+
+    private static int generationOf(long data) {
+        return (int) ((data >>> GENERATION_SHIFT) & 0xFF);
+    }
+
+    /**
+     * Mate scores count plies from the root; stored, they count from the entry's own position so
+     * that they stay right when the position turns up at a different ply
+     */
+    private static int toStored(int score, int ply) {
+        if (score >= Search.MATE - Search.MAX_PLY) {
+            return score + ply;
+        }
+        if (score <= -Search.MATE + Search.MAX_PLY) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    /**
+     * @return how many entries the table holds
+     */
+    public int capacity() {
+        return table.length / 2;
+    }
+
+    /**
+     * Estimates how full the table is from its first thousand slots, as UCI engines report it
+     *
+     * @return filled slots per thousand that were written by the current search
+     */
+    public int hashfull() {
+        int sample = Math.min(1000, capacity());
+        int current = generation;
+        int filled = 0;
+        for (int i = 0; i < sample; i++) {
+            long data = table[i * 2];
+            if (data != MISS && generationOf(data) == current) {
+                filled++;
+            }
+        }
+        return filled * 1000 / sample;
+    }
+
+    public long getProbes() {
+        return probes.sum();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return probes that found the slot held by a different position
+     */
+    public long getCollisions() {
+        return collisions.sum();
+    }
+
+    public long getMisses() {
+        return getProbes() - getHits();
+    }
+
+    public long getStores() {
+        return stores.sum();
+    }
+
+    public double hitRate() {
+        long probed = getProbes();
+        return probed == 0 ? 0 : (double) getHits() / probed;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%,d entries, %,d probes, %.1f%% hits, %,d collisions, %,d stores",
+                capacity(), getProbes(), hitRate() * 100, getCollisions(), getStores());
+    }
+}
@@ -0,0 +1,194 @@
+package chess.tablebase;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.GameState;
+import chess.Move;
+import chess.MoveList;
+import chess.MoveUndo;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Perfect-play results for endgames of two kings and one more piece, read from files that
+ * {@link TablebaseGenerator} writes.
+ * <p>
+ * Each {@link Ending} has its own file: a 12-byte header of {@link #MAGIC}, {@link #VERSION} and
+ * the ending's ordinal, then one byte for every arrangement of the side to move and the three
+ * squares, as described in {@link TablebaseResult#decode}. Positions are indexed with the side
+ * that has the extra piece as white; positions where black has it are mirrored top to bottom.
+ * Files are memory-mapped and probed in place with a single index computation, so probing is
+ * cheap enough to do from a search, and processes that open the same files share their pages.
+ * <p>
+ * Castling is not covered: a position whose game state still allows it is not in the tables. A
+ * tablebase is read-only and safe to share between threads.
+ */
+public final class Tablebase {
+    public static final int MAGIC = 0x43544231;
+    public static final int VERSION = 1;
+
+    static final int HEADER_BYTES = 12;
+    /** Entries per table: side to move, then the strong king, weak king and extra piece squares */
+    static final int SIZE = 2 * 64 * 64 * 64;
+    /** Entry for an arrangement that cannot occur in a game */
+    static final byte ILLEGAL = Byte.MIN_VALUE;
+
+    private static final ChessGame.TeamColor[] COLORS = ChessGame.TeamColor.values();
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    public enum Ending {
+        KQK(ChessPiece.PieceType.QUEEN),
+        KRK(ChessPiece.PieceType.ROOK),
+        KPK(ChessPiece.PieceType.PAWN);
+
+        private final ChessPiece.PieceType piece;
+
+        Ending(ChessPiece.PieceType piece) {
+            this.piece = piece;
+        }
+
+        public ChessPiece.PieceType getPiece() {
+            return piece;
+        }
+
+        public String fileName() {
+            return name() + ".tb";
+        }
+    }
+
+    private final Map<Ending, ByteBuffer> tables;
+
+    Tablebase(Map<Ending, ByteBuffer> tables) {
+        this.tables = new EnumMap<>(tables);
+    }
+
+    /**
+     * Maps whichever table files are in a directory; endings without a file are not covered
+     *
+     * @param directory where {@link TablebaseGenerator} wrote its files
+     * @return the tablebase
+     * @throws IOException if a file cannot be read or is not a table
+     */
+    public static Tablebase open(Path directory) throws IOException {
+        Map<Ending, ByteBuffer> tables = new EnumMap<>(Ending.class);
+        for (Ending ending : Ending.values()) {
+            Path file = directory.resolve(ending.fileName());
+            if (Files.exists(file)) {
+                tables.put(ending, map(file, ending));
+            }
+        }
+        return new Tablebase(tables);
+    }
+
+    private static ByteBuffer map(Path file, Ending ending) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() != HEADER_BYTES + SIZE) {
+                throw new IOException("Not a tablebase file: " + file);
+            }
+            ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (mapped.getInt(0) != MAGIC || mapped.getInt(4) != VERSION || mapped.getInt(8) != ending.ordinal()) {
+                throw new IOException("Not a version " + VERSION + " " + ending + " table: " + file);
+            }
+            return mapped.slice(HEADER_BYTES, SIZE);
+        }
+    }
+
+    /**
+     * @return True if the tablebase has the ending's table
+     */
+    public boolean covers(Ending ending) {
+        return tables.containsKey(ending);
+    }
+
+    /**
+     * Looks a position up
+     *
+     * @param game the position, with the team to move
+     * @return the result with perfect play, or null if the position is not in any table
+     */
+    public TablebaseResult probe(ChessGame game) {
+        ChessBoard board = game.getBoard();
+        if (GameState.castlingRights(game.getGameState()) != 0 || countPieces(board) != 3) {
+            return null;
+        }
+        for (ChessGame.TeamColor strong : COLORS) {
+            ChessGame.TeamColor weak = strong == ChessGame.TeamColor.WHITE
+                    ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+            long strongKing = board.getPieces(strong, ChessPiece.PieceType.KING);
+            long weakKing = board.getPieces(weak, ChessPiece.PieceType.KING);
+            for (Map.Entry<Ending, ByteBuffer> table : tables.entrySet()) {
+                long extra = board.getPieces(strong, table.getKey().piece);
+                if (extra == 0 || strongKing == 0 || weakKing == 0) {
+                    continue;
+                }
+                // Index with the strong side as white, mirroring the board if it is black
+                int flip = strong == ChessGame.TeamColor.WHITE ? 0 : 56;
+                int index = index(game.getTeamTurn() == strong ? 0 : 1,
+                        Long.numberOfTrailingZeros(strongKing) ^ flip,
+                        Long.numberOfTrailingZeros(weakKing) ^ flip,
+                        Long.numberOfTrailingZeros(extra) ^ flip);
+                byte value = table.getValue().get(index);
+                return value == ILLEGAL ? null : TablebaseResult.decode(value);
+            }
+        }
+        return null;
+    }
+
+    private static int countPieces(ChessBoard board) {
+        int count = 0;
+        for (ChessGame.TeamColor color : COLORS) {
+            for (ChessPiece.PieceType type : TYPES) {
+                count += Long.bitCount(board.getPieces(color, type));
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Picks a move that keeps the best result: the quickest mate when winning, any drawing move
+     * when drawn, and the longest resistance when losing
+     *
+     * @param game the position, with the team to move; it is not changed
+     * @return the packed {@link Move}, or {@link Move#NONE} if the position is not in any table or
+     * has no legal moves
+     */
+    public int bestMove(ChessGame game) {
+        if (probe(game) == null) {
+            return Move.NONE;
+        }
+        ChessGame copy = new ChessGame(game);
+        MoveList moves = new MoveList();
+        MoveUndo undo = new MoveUndo();
+        copy.legalMoves(moves);
+        int best = Move.NONE;
+        int bestScore = Integer.MIN_VALUE;
+        for (int i = 0; i < moves.size(); i++) {
+            copy.makeMove(moves.get(i), undo);
+            TablebaseResult reply = probe(copy);
+            if (reply == null && copy.isDrawByInsufficientMaterial()) {
+                reply = TablebaseResult.DRAW;
+            }
+            copy.unmakeMove(undo);
+            if (reply != null && -reply.score() > bestScore) {
+                best = moves.get(i);
+                bestScore = -reply.score();
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @param strongToMove 0 if the side with the extra piece is to move, 1 if the other side is
+     */
+    static int index(int strongToMove, int strongKing, int weakKing, int piece) {
+        return ((strongToMove * 64 + strongKing) * 64 + weakKing) * 64 + piece;
+    }
+}
@@ -0,0 +1,269 @@
+package chess.tablebase;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.GameState;
+import chess.Move;
+import chess.MoveList;
+import chess.MoveUndo;
+import chess.tablebase.Tablebase.Ending;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Works out every position of the {@link Tablebase} endings by retrograde analysis and writes
+ * the tables to disk.
+ * <p>
+ * First every arrangement of the pieces is set up on a {@link ChessGame}, so the moves follow the
+ * same rules as everywhere else, and its legal moves are recorded as the indexes of the positions
+ * they lead to. Checkmates are losses in 0. Then passes go outward one ply at a time: on odd
+ * passes a position wins if a move reaches a loss found on the pass before, and on even passes
+ * a position loses once all of its moves reach wins. Whatever is left when the passes stop
+ * finding anything is a draw. Moves that leave the ending are scored directly: captures of the
+ * extra piece are draws, and promotions look the new position up in the table already built for
+ * the new piece, which is why the endings are built in order.
+ * <p>
+ * Both the setup and every pass are spread across all cores with parallel streams. A pass
+ * only writes results of one kind, wins or losses, and only reads results of the other, so the
+ * threads can share one array without locking.
+ */
+public final class TablebaseGenerator {
+    private static final byte UNKNOWN = 0;
+    private static final byte MATED = -1;
+    /** Marks a position none of whose moves leave the ending */
+    private static final byte NO_EXIT = Byte.MIN_VALUE;
+    private static final int MAX_PLIES = Byte.MAX_VALUE - 1;
+    private static final int[] NO_CHILDREN = {};
+
+    private final Map<Ending, ByteBuffer> solved = new EnumMap<>(Ending.class);
+
+    private TablebaseGenerator() {
+    }
+
+    /**
+     * Builds every ending's table and writes it to a directory, replacing existing files
+     *
+     * @param directory where to write the files
+     * @return the new tables, opened from the files
+     * @throws IOException if a file cannot be written
+     */
+    public static Tablebase generateAll(Path directory) throws IOException {
+        TablebaseGenerator generator = new TablebaseGenerator();
+        // Declaration order puts the endings that pawns promote into first
+        for (Ending ending : Ending.values()) {
+            write(directory.resolve(ending.fileName()), ending, generator.generate(ending));
+        }
+        return Tablebase.open(directory);
+    }
+
+    private static void write(Path file, Ending ending, byte[] values) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(Tablebase.MAGIC);
+            out.writeInt(Tablebase.VERSION);
+            out.writeInt(ending.ordinal());
+            out.write(values);
+        }
+    }
+
+    private byte[] generate(Ending ending) {
+        byte[] values = new byte[Tablebase.SIZE];
+        int[][] children = new int[Tablebase.SIZE][];
+        byte[] exits = new byte[Tablebase.SIZE];
+        IntStream.range(0, 2 * 64).parallel()
+                .forEach(chunk -> expand(ending, chunk / 64, chunk % 64, values, children, exits));
+
+        int longestExit = 0;
+        for (byte exit : exits) {
+            if (exit != NO_EXIT) {
+                longestExit = Math.max(longestExit, Math.abs(exit) - 1);
+            }
+        }
+        long previous = -1;
+        for (int plies = 1; ; plies++) {
+            if (plies > MAX_PLIES) {
+                throw new IllegalStateException(ending + " has mates longer than " + MAX_PLIES + " plies");
+            }
+            int pass = plies;
+            long found = IntStream.range(0, Tablebase.SIZE).parallel()
+                    .filter(position -> resolve(position, pass, values, children, exits))
+                    .count();
+            if (found == 0 && previous == 0 && plies > longestExit) {
+                break;
+            }
+            previous = found;
+        }
+        solved.put(ending, ByteBuffer.wrap(values));
+        return values;
+    }
+
+    /**
+     * Sets up every position with one side to move and the strong king on one square, marking
+     * illegal arrangements and checkmates and recording where each legal move leads
+     */
+    private void expand(Ending ending, int strongToMove, int strongKing,
+                        byte[] values, int[][] children, byte[] exits) {
+        ChessGame game = new ChessGame();
+        MoveList moves = new MoveList();
+        MoveUndo undo = new MoveUndo();
+        ChessGame.TeamColor toMove = strongToMove == 0 ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+        ChessGame.TeamColor waiting = strongToMove == 0 ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+
+        for (int weakKing = 0; weakKing < 64; weakKing++) {
+            for (int piece = 0; piece < 64; piece++) {
+                int position = Tablebase.index(strongToMove, strongKing, weakKing, piece);
+                exits[position] = NO_EXIT;
+                children[position] = NO_CHILDREN;
+                if (!canPlace(ending, strongKing, weakKing, piece)) {
+                    values[position] = Tablebase.ILLEGAL;
+                    continue;
+                }
+                ChessBoard board = new ChessBoard();
+                place(board, strongKing, ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING);
+                place(board, weakKing, ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING);
+                place(board, piece, ChessGame.TeamColor.WHITE, ending.getPiece());
+                game.setBoard(board);
+                game.setGameState(GameState.of(0, GameState.NO_EN_PASSANT, 0, 1));
+                game.setTeamTurn(toMove);
+                if (game.isInCheck(waiting)) {
+                    values[position] = Tablebase.ILLEGAL;
+                    continue;
+                }
+
+                game.legalMoves(moves);
+                if (moves.isEmpty()) {
+                    values[position] = game.isInCheck(toMove) ? MATED : UNKNOWN;
+                    continue;
+                }
+                int[] next = new int[moves.size()];
+                int count = 0;
+                byte exit = NO_EXIT;
+                for (int i = 0; i < moves.size(); i++) {
+                    game.makeMove(moves.get(i), undo);
+                    ChessBoard after = game.getBoard();
+                    long extra = after.getPieces(ChessGame.TeamColor.WHITE, ending.getPiece());
+                    if (extra == 0) {
+                        exit = better(exit, parentOf(leftEnding(after, Move.promotion(moves.get(i)))));
+                    } else {
+                        next[count++] = Tablebase.index(1 - strongToMove,
+                                Long.numberOfTrailingZeros(after.getPieces(ChessGame.TeamColor.WHITE,
+                                        ChessPiece.PieceType.KING)),
+                                Long.numberOfTrailingZeros(after.getPieces(ChessGame.TeamColor.BLACK,
+                                        ChessPiece.PieceType.KING)),
+                                Long.numberOfTrailingZeros(extra));
+                    }
+                    game.unmakeMove(undo);
+                }
+                children[position] = count == next.length ? next : Arrays.copyOf(next, count);
+                exits[position] = exit;
+            }
+        }
+    }
+
+    private static boolean canPlace(Ending ending, int strongKing, int weakKing, int piece) {
+        if (strongKing == weakKing || piece == strongKing || piece == weakKing) {
+            return false;
+        }
+        // Pawns never stand on the first or last rank
+        return ending.getPiece() != ChessPiece.PieceType.PAWN || (piece >= 8 && piece < 56);
+    }
+
+    private static void place(ChessBoard board, int square, ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        board.addPiece(ChessPosition.of(square / 8 + 1, square % 8 + 1), new ChessPiece(color, type));
+    }
+
+    /**
+     * @param promotion what the pawn became, or null if the extra piece was captured
+     * @return the value, for black to move, of the position a move out of the ending reached
+     */
+    private byte leftEnding(ChessBoard board, ChessPiece.PieceType promotion) {
+        Ending ending = promotion == ChessPiece.PieceType.QUEEN ? Ending.KQK
+                : promotion == ChessPiece.PieceType.ROOK ? Ending.KRK : null;
+        if (ending == null) {
+            // Bare kings, or a king and a minor piece against a king
+            return UNKNOWN;
+        }
+        ByteBuffer table = solved.get(ending);
+        if (table == null) {
+            throw new IllegalStateException(ending + " must be generated before the endings that promote into it");
+        }
+        return table.get(Tablebase.index(1,
+                Long.numberOfTrailingZeros(board.getPieces(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING)),
+                Long.numberOfTrailingZeros(board.getPieces(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING)),
+                Long.numberOfTrailingZeros(board.getPieces(ChessGame.TeamColor.WHITE, promotion))));
+    }
+
+    /**
+     * Decides a position on the given pass, if it can be decided yet
+     *
+     * @return True if the position was decided
+     */
+    private static boolean resolve(int position, int plies, byte[] values, int[][] children, byte[] exits) {
+        if (values[position] != UNKNOWN) {
+            return false;
+        }
+        int[] next = children[position];
+        byte exit = exits[position];
+        if (next.length == 0 && exit == NO_EXIT) {
+            // Stalemate, or an illegal arrangement
+            return false;
+        }
+        if (plies % 2 == 1) {
+            // A win in n plies needs one move to a loss in n - 1, which is stored as -n
+            boolean wins = exit == plies + 1;
+            for (int i = 0; i < next.length && !wins; i++) {
+                wins = values[next[i]] == -plies;
+            }
+            if (wins) {
+                values[position] = (byte) (plies + 1);
+            }
+            return wins;
+        }
+        if (exit != NO_EXIT && (exit >= 0 || -exit - 1 > plies)) {
+            return false;
+        }
+        for (int child : next) {
+            if (values[child] <= 0) {
+                return false;
+            }
+        }
+        values[position] = (byte) -(plies + 1);
+        return true;
+    }
+
+    /**
+     * Turns the value of the position after a move into the value of the move for the side that
+     * made it: the opponent losing in n plies is a win in n + 1, and the other way around
+     */
+    private static byte parentOf(byte child) {
+        if (child == UNKNOWN) {
+            return UNKNOWN;
+        }
+        return (byte) (child < 0 ? -child + 1 : -child - 1);
+    }
+
+    /**
+     * @return whichever of two move values the side to move prefers: the quickest win, then a
+     * draw, then the longest loss
+     */
+    private static byte better(byte a, byte b) {
+        return rank(a) >= rank(b) ? a : b;
+    }
+
+    private static int rank(byte value) {
+        if (value == NO_EXIT) {
+            return Integer.MIN_VALUE;
+        }
+        return value > 0 ? 1000 - value : value < 0 ? -1000 - value : 0;
+    }
+}
@@ -0,0 +1,43 @@
+package chess.tablebase;
+
+import chess.search.Search;
+
+/**
+ * What perfect play makes of a position, from the side to move's point of view
+ *
+ * @param outcome whether the side to move wins, draws or loses
+ * @param plies   for a win or loss, the half-moves until checkmate when the winner mates as
+ *                quickly as possible and the loser holds out as long as possible; 0 for a draw
+ */
+public record TablebaseResult(Outcome outcome, int plies) {
+    public static final TablebaseResult DRAW = new TablebaseResult(Outcome.DRAW, 0);
+
+    public enum Outcome {
+        WIN,
+        DRAW,
+        LOSS
+    }
+
+    /**
+     * Table entries hold a signed byte: 0 for a draw, and otherwise {@code plies + 1}, positive
+     * for a win and negative for a loss
+     */
+    static TablebaseResult decode(byte value) {
+        if (value == 0) {
+            return DRAW;
+        }
+        return new TablebaseResult(value > 0 ? Outcome.WIN : Outcome.LOSS, Math.abs(value) - 1);
+    }
+
+    /**
+     * @return the result as a {@link Search} score: a mate score counting plies from this position,
+     * or 0 for a draw
+     */
+    public int score() {
+        return switch (outcome) {
+            case WIN -> Search.MATE - plies;
+            case DRAW -> 0;
+            case LOSS -> -Search.MATE + plies;
+        };
+    }
+}
@@ -8,6 +8,12 @@ public class GameData {
     String blackUsername;
     final String gameName;
     final ChessGame chessGame;
+    // Null until the game has ended
+    GameResult result;
+    // How many moves have been played in the game; kept server side rather than sent to clients
+    transient int moveCount;
+    // Bumped by every write, so that a write based on a stale read can be turned away
+    transient int version;
 
     public GameData(Integer gameID, String gameName, ChessGame chessGame) {
         this.gameID = gameID;
@@ -25,6 +31,21 @@ public class GameData {
         this.chessGame=chessGame;
     }
 
+    /**
+     * Copies another game's data, including its chess game, so that changing one leaves the other
+     * as it was
+     */
+    public GameData(GameData other) {
+        this.gameID = other.gameID;
+        this.whiteUsername = other.whiteUsername;
+        this.blackUsername = other.blackUsername;
+        this.gameName = other.gameName;
+        this.chessGame = other.chessGame == null ? null : new ChessGame(other.chessGame);
+        this.result = other.result;
+        this.moveCount = other.moveCount;
+        this.version = other.version;
+    }
+
     public GameData(String gameName){
         this.gameID = null;
         this.whiteUsername=null;
@@ -69,6 +90,30 @@ public class GameData {
         return chessGame;
     }
 
+    public GameResult getResult() {
+        return result;
+    }
+
+    public void setResult(GameResult result) {
+        this.result = result;
+    }
+
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    public void setMoveCount(int moveCount) {
+        this.moveCount = moveCount;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
     @Override
     public String toString() {
         return "GameData{" +
@@ -1,6 +1,6 @@
 package requests;
 
-import model.GameData;
+import chess.ChessMove;
 
-public record MakeMoveRequest (GameData gameData) {
+public record MakeMoveRequest (Integer gameID, ChessMove move) {
 }
@@ -0,0 +1,40 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class BoundsTests {
+
+    @Test
+    @DisplayName("Looking up a square off the board throws instead of wrapping around")
+    public void getPieceOffBoard() {
+        ChessBoard board = new ChessGame().getBoard();
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> board.getPiece(new ChessPosition(0, 1)));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> board.getPiece(new ChessPosition(9, 1)));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> board.getPiece(new ChessPosition(1, 0)));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> board.getPiece(new ChessPosition(3, 13)));
+    }
+
+    @Test
+    @DisplayName("Placing a piece off the board throws and leaves the board alone")
+    public void addPieceOffBoard() {
+        ChessBoard board = new ChessBoard();
+        ChessPiece rook = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK);
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> board.addPiece(new ChessPosition(9, 9), rook));
+        Assertions.assertEquals(new ChessBoard(), board);
+    }
+
+    @Test
+    @DisplayName("A move with an off-board square is rejected rather than aliased to a legal move")
+    public void makeMoveOffBoard() {
+        ChessGame game = new ChessGame();
+        String start = game.toFen();
+        // Row 3, column 13 packs to the same index as e4
+        ChessMove aliased = new ChessMove(new ChessPosition(2, 5), new ChessPosition(3, 13), null);
+        Assertions.assertThrows(InvalidMoveException.class, () -> game.makeMove(aliased));
+        ChessMove offStart = new ChessMove(new ChessPosition(0, 13), new ChessPosition(4, 5), null);
+        Assertions.assertThrows(InvalidMoveException.class, () -> game.makeMove(offStart));
+        Assertions.assertEquals(start, game.toFen());
+    }
+}
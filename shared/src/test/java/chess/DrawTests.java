@@ -0,0 +1,74 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class DrawTests {
+
+    private static void move(ChessGame game, String from, String to) throws InvalidMoveException {
+        game.makeMove(new ChessMove(position(from), position(to), null));
+    }
+
+    private static ChessPosition position(String square) {
+        return new ChessPosition(square.charAt(1) - '0', square.charAt(0) - 'a' + 1);
+    }
+
+    private static void shuffleKnights(ChessGame game) throws InvalidMoveException {
+        move(game, "g1", "f3");
+        move(game, "g8", "f6");
+        move(game, "f3", "g1");
+        move(game, "f6", "g8");
+    }
+
+    @Test
+    @DisplayName("The third occurrence of a position is a draw")
+    public void threefold() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        Assertions.assertFalse(game.isRepetition());
+        shuffleKnights(game);
+        Assertions.assertTrue(game.isRepetition());
+        Assertions.assertFalse(game.isDrawByRepetition());
+        shuffleKnights(game);
+        Assertions.assertTrue(game.isDrawByRepetition());
+        Assertions.assertTrue(game.isDraw());
+
+        MoveUndo undo = new MoveUndo();
+        game.makeMove(Move.fromChessMove(new ChessMove(position("b1"), position("c3"), null)), undo);
+        Assertions.assertFalse(game.isDraw());
+        game.unmakeMove(undo);
+        Assertions.assertTrue(game.isDrawByRepetition());
+    }
+
+    @Test
+    @DisplayName("A pawn move ends what can repeat")
+    public void pawnMoveResets() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        shuffleKnights(game);
+        move(game, "e2", "e4");
+        move(game, "e7", "e5");
+        shuffleKnights(game);
+        Assertions.assertTrue(game.isRepetition());
+        Assertions.assertFalse(game.isDrawByRepetition());
+    }
+
+    @Test
+    @DisplayName("Fifty moves without a capture or pawn move is a draw")
+    public void fiftyMoves() {
+        Assertions.assertFalse(ChessGame.fromFen("4k3/8/8/8/8/8/4P3/R3K3 w - - 99 80").isDraw());
+        Assertions.assertTrue(ChessGame.fromFen("4k3/8/8/8/8/8/4P3/R3K3 w - - 100 80").isDrawByFiftyMoveRule());
+        // Mate on the hundredth ply still wins
+        Assertions.assertFalse(ChessGame.fromFen("R3k3/8/4K3/8/8/8/8/8 b - - 100 80").isDrawByFiftyMoveRule());
+    }
+
+    @Test
+    @DisplayName("Positions no one can win are drawn")
+    public void insufficientMaterial() {
+        Assertions.assertTrue(ChessGame.fromFen("4k3/8/8/8/8/8/8/4K3 w").isDrawByInsufficientMaterial());
+        Assertions.assertTrue(ChessGame.fromFen("4k3/8/8/8/8/8/8/4KN2 w").isDrawByInsufficientMaterial());
+        Assertions.assertTrue(ChessGame.fromFen("4kb2/8/8/8/8/8/8/2B1K3 w").isDrawByInsufficientMaterial());
+        Assertions.assertFalse(ChessGame.fromFen("4k1b1/8/8/8/8/8/8/2B1K3 w").isDrawByInsufficientMaterial());
+        Assertions.assertFalse(ChessGame.fromFen("4k3/8/8/8/8/8/8/3NKN2 w").isDrawByInsufficientMaterial());
+        Assertions.assertFalse(ChessGame.fromFen("4k3/8/8/8/8/8/P7/4K3 w").isDrawByInsufficientMaterial());
+    }
+}
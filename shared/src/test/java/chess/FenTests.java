@@ -0,0 +1,94 @@
+package chess;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class FenTests {
+    // Written by the original array-backed ChessGame after 1. e4, as rows of games stored before
+    // the switch to FEN hold it
+    private static final String LEGACY_AFTER_E4 = """
+            {"color":"BLACK","board":{"board":[
+                [{"pieceColor":"WHITE","pieceType":"ROOK"},{"pieceColor":"WHITE","pieceType":"KNIGHT"},{"pieceColor":"WHITE","pieceType":"BISHOP"},{"pieceColor":"WHITE","pieceType":"QUEEN"},{"pieceColor":"WHITE","pieceType":"KING"},{"pieceColor":"WHITE","pieceType":"BISHOP"},{"pieceColor":"WHITE","pieceType":"KNIGHT"},{"pieceColor":"WHITE","pieceType":"ROOK"}],
+                [{"pieceColor":"WHITE","pieceType":"PAWN"},{"pieceColor":"WHITE","pieceType":"PAWN"},{"pieceColor":"WHITE","pieceType":"PAWN"},{"pieceColor":"WHITE","pieceType":"PAWN"},null,{"pieceColor":"WHITE","pieceType":"PAWN"},{"pieceColor":"WHITE","pieceType":"PAWN"},{"pieceColor":"WHITE","pieceType":"PAWN"}],
+                [null,null,null,null,null,null,null,null],
+                [null,null,null,null,{"pieceColor":"WHITE","pieceType":"PAWN"},null,null,null],
+                [null,null,null,null,null,null,null,null],
+                [null,null,null,null,null,null,null,null],
+                [{"pieceColor":"BLACK","pieceType":"PAWN"},{"pieceColor":"BLACK","pieceType":"PAWN"},{"pieceColor":"BLACK","pieceType":"PAWN"},{"pieceColor":"BLACK","pieceType":"PAWN"},{"pieceColor":"BLACK","pieceType":"PAWN"},{"pieceColor":"BLACK","pieceType":"PAWN"},{"pieceColor":"BLACK","pieceType":"PAWN"},{"pieceColor":"BLACK","pieceType":"PAWN"}],
+                [{"pieceColor":"BLACK","pieceType":"ROOK"},{"pieceColor":"BLACK","pieceType":"KNIGHT"},{"pieceColor":"BLACK","pieceType":"BISHOP"},{"pieceColor":"BLACK","pieceType":"QUEEN"},{"pieceColor":"BLACK","pieceType":"KING"},{"pieceColor":"BLACK","pieceType":"BISHOP"},{"pieceColor":"BLACK","pieceType":"KNIGHT"},{"pieceColor":"BLACK","pieceType":"ROOK"}]
+            ]}}""";
+
+    private static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    @Test
+    @DisplayName("New game writes the standard starting FEN")
+    public void startingPosition() {
+        Assertions.assertEquals(START, new ChessGame().toFen());
+        Assertions.assertEquals(new ChessGame().getZobristKey(), ChessGame.fromFen(START).getZobristKey());
+    }
+
+    @Test
+    @DisplayName("Standard positions survive a round trip")
+    public void roundTrip() {
+        for (Perft.Position position : Perft.STANDARD_POSITIONS) {
+            Assertions.assertEquals(position.fen(), ChessGame.fromFen(position.fen()).toFen(), position.name());
+        }
+    }
+
+    @Test
+    @DisplayName("Moves update the side, castling, en passant and clocks")
+    public void afterMoves() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        game.makeMove(new ChessMove(new ChessPosition(8, 7), new ChessPosition(6, 6), null));
+        game.makeMove(new ChessMove(new ChessPosition(4, 5), new ChessPosition(5, 5), null));
+        game.makeMove(new ChessMove(new ChessPosition(7, 4), new ChessPosition(5, 4), null));
+        Assertions.assertEquals("rnbqkb1r/ppp1pppp/5n2/3pP3/8/8/PPPP1PPP/RNBQKBNR w KQkq d6 0 3", game.toFen());
+
+        game.makeMove(new ChessMove(new ChessPosition(1, 5), new ChessPosition(2, 5), null));
+        Assertions.assertEquals("rnbqkb1r/ppp1pppp/5n2/3pP3/8/8/PPPPKPPP/RNBQ1BNR b kq - 1 3", game.toFen());
+    }
+
+    @Test
+    @DisplayName("Unusable castling rights and en passant squares are dropped")
+    public void canonical() {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/8/4P3/8/8/4K2R b KQkq e3 0 1");
+        Assertions.assertEquals("4k3/8/8/8/4P3/8/8/4K2R b K - 0 1", game.toFen());
+    }
+
+    @Test
+    @DisplayName("Malformed strings are rejected")
+    public void malformed() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen("8/8/8 w - - 0 1"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen("9/8/8/8/8/8/8/8 w"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen("8/8/8/8/8/8/8/7x w"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen(START.replace(" w ", " x ")));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen(START.replace("0 1", "0 one")));
+    }
+
+    @Test
+    @DisplayName("Gson writes games as FEN and still reads the old object form")
+    public void json() {
+        Gson gson = new Gson();
+        ChessGame game = ChessGame.fromFen(Perft.STANDARD_POSITIONS.get(1).fen());
+        String json = gson.toJson(game);
+        Assertions.assertEquals('"' + game.toFen() + '"', json);
+        Assertions.assertEquals(game.toFen(), gson.fromJson(json, ChessGame.class).toFen());
+
+        Assertions.assertEquals("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1",
+                gson.fromJson(LEGACY_AFTER_E4, ChessGame.class).toFen());
+    }
+
+    @Test
+    @DisplayName("Stored games without the old piece grid are rejected rather than read as empty")
+    public void legacyJsonMalformed() {
+        Gson gson = new Gson();
+        Assertions.assertThrows(JsonParseException.class,
+                () -> gson.fromJson("{\"color\":\"WHITE\",\"board\":{\"bitboards\":[]}}", ChessGame.class));
+        Assertions.assertThrows(JsonParseException.class,
+                () -> gson.fromJson("{\"color\":\"WHITE\",\"board\":{\"board\":[[]]}}", ChessGame.class));
+    }
+}
@@ -0,0 +1,54 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+
+public class GameMemoTests {
+
+    @Test
+    @DisplayName("Repeated queries on an unchanged position agree")
+    public void repeatedQueries() {
+        ChessGame game = new ChessGame();
+        ChessPosition knight = new ChessPosition(1, 2);
+        var first = new HashSet<>(game.validMoves(knight));
+        Assertions.assertEquals(2, first.size());
+        Assertions.assertEquals(first, new HashSet<>(game.validMoves(knight)));
+        Assertions.assertFalse(game.isInCheck(ChessGame.TeamColor.WHITE));
+        Assertions.assertFalse(game.isInStalemate(ChessGame.TeamColor.WHITE));
+    }
+
+    @Test
+    @DisplayName("Making a move is seen by the next query")
+    public void afterMove() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        Assertions.assertFalse(game.isInCheckmate(ChessGame.TeamColor.WHITE));
+        game.makeMove(new ChessMove(new ChessPosition(2, 6), new ChessPosition(3, 6), null));
+        game.makeMove(new ChessMove(new ChessPosition(7, 5), new ChessPosition(5, 5), null));
+        game.makeMove(new ChessMove(new ChessPosition(2, 7), new ChessPosition(4, 7), null));
+        Assertions.assertFalse(game.isInCheckmate(ChessGame.TeamColor.WHITE));
+        game.makeMove(new ChessMove(new ChessPosition(8, 4), new ChessPosition(4, 8), null));
+        Assertions.assertTrue(game.isInCheck(ChessGame.TeamColor.WHITE));
+        Assertions.assertTrue(game.isInCheckmate(ChessGame.TeamColor.WHITE));
+        Assertions.assertTrue(game.validMoves(new ChessPosition(1, 5)).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Changing the board behind the game's back is noticed")
+    public void boardEdits() {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/8/8/8/8/4K3 w - - 0 1");
+        ChessPosition king = new ChessPosition(1, 5);
+        Assertions.assertEquals(5, game.validMoves(king).size());
+        Assertions.assertFalse(game.isInCheck(ChessGame.TeamColor.WHITE));
+
+        game.getBoard().addPiece(new ChessPosition(4, 5),
+                new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
+        Assertions.assertTrue(game.isInCheck(ChessGame.TeamColor.WHITE));
+        Assertions.assertEquals(4, game.validMoves(king).size());
+
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+        Assertions.assertTrue(game.isInCheck(ChessGame.TeamColor.WHITE));
+    }
+}
@@ -0,0 +1,36 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+public class PerftTests {
+
+    @Test
+    @DisplayName("Standard positions match published node counts")
+    public void standardPositions() {
+        for (Perft.Position position : Perft.STANDARD_POSITIONS) {
+            for (int depth = 1; depth <= position.maxDepth(); depth++) {
+                long nodes = new Perft(ChessGame.fromFen(position.fen())).count(depth);
+                Assertions.assertEquals(position.nodeCounts()[depth - 1], nodes,
+                        position.name() + " perft(" + depth + ")");
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Divide sums to the perft count and leaves the game unchanged")
+    public void divide() {
+        ChessGame game = new ChessGame();
+        ChessBoard before = game.getBoard().clone();
+
+        Map<ChessMove, Long> counts = new Perft(game).divide(3);
+
+        Assertions.assertEquals(20, counts.size());
+        Assertions.assertEquals(8902, counts.values().stream().mapToLong(Long::longValue).sum());
+        Assertions.assertEquals(before, game.getBoard());
+        Assertions.assertEquals(ChessGame.TeamColor.WHITE, game.getTeamTurn());
+    }
+}
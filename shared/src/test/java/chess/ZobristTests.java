@@ -0,0 +1,94 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class ZobristTests {
+
+    @Test
+    @DisplayName("Transposed move orders reach the same key")
+    public void transposition() throws InvalidMoveException {
+        ChessGame first = new ChessGame();
+        first.makeMove(move(1, 2, 3, 3));
+        first.makeMove(move(8, 2, 6, 3));
+        first.makeMove(move(1, 7, 3, 6));
+
+        ChessGame second = new ChessGame();
+        second.makeMove(move(1, 7, 3, 6));
+        second.makeMove(move(8, 2, 6, 3));
+        second.makeMove(move(1, 2, 3, 3));
+
+        Assertions.assertEquals(first.getZobristKey(), second.getZobristKey());
+        Assertions.assertEquals(first.getBoard().hashCode(), second.getBoard().hashCode());
+    }
+
+    @Test
+    @DisplayName("Key matches a board built from scratch and survives make/unmake")
+    public void incrementalMatchesFresh() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(move(2, 5, 4, 5));
+
+        ChessBoard fresh = new ChessBoard();
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPosition position = new ChessPosition(row, col);
+                fresh.addPiece(position, game.getBoard().getPiece(position));
+            }
+        }
+        Assertions.assertEquals(fresh.getZobristKey(), game.getBoard().getZobristKey());
+        Assertions.assertNotEquals(fresh.getZobristKey(), game.getZobristKey());
+
+        long key = game.getZobristKey();
+        MoveUndo undo = new MoveUndo();
+        game.makeMove(move(7, 5, 5, 5), undo);
+        Assertions.assertNotEquals(key, game.getZobristKey());
+        game.unmakeMove(undo);
+        Assertions.assertEquals(key, game.getZobristKey());
+    }
+
+    @Test
+    @DisplayName("Unmaking castling, promotions and captures restores the key and state")
+    public void specialMovesUnmake() {
+        MoveList moves = new MoveList();
+        MoveUndo undo = new MoveUndo();
+        for (Perft.Position position : Perft.STANDARD_POSITIONS) {
+            ChessGame game = ChessGame.fromFen(position.fen());
+            long key = game.getZobristKey();
+            int state = game.getGameState();
+            ChessBoard before = game.getBoard().clone();
+
+            game.legalMoves(moves);
+            for (int i = 0; i < moves.size(); i++) {
+                String name = position.name() + " " + Move.toString(moves.get(i));
+                game.makeMove(moves.get(i), undo);
+                game.unmakeMove(undo);
+                Assertions.assertEquals(key, game.getZobristKey(), name);
+                Assertions.assertEquals(state, game.getGameState(), name);
+                Assertions.assertEquals(before, game.getBoard(), name);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Castling rights and en passant change the key")
+    public void gameStateIsHashed() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        long key = game.getZobristKey();
+        game.setGameState(GameState.withCastlingRights(game.getGameState(), GameState.WHITE_QUEENSIDE));
+        Assertions.assertNotEquals(key, game.getZobristKey());
+
+        // A double push only opens en passant when an enemy pawn can take it
+        game = new ChessGame();
+        game.makeMove(move(2, 5, 4, 5));
+        Assertions.assertEquals(GameState.NO_EN_PASSANT, GameState.enPassantFile(game.getGameState()));
+        game.makeMove(move(7, 1, 6, 1));
+        game.makeMove(move(4, 5, 5, 5));
+        game.makeMove(move(7, 4, 5, 4));
+        Assertions.assertEquals(3, GameState.enPassantFile(game.getGameState()));
+    }
+
+    private static ChessMove move(int fromRow, int fromCol, int toRow, int toCol) {
+        return new ChessMove(new ChessPosition(fromRow, fromCol), new ChessPosition(toRow, toCol), null);
+    }
+}
@@ -0,0 +1,115 @@
+package chess.book;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import chess.Move;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+public class OpeningBookTests {
+    private static final ChessMove E4 = new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null);
+    private static final ChessMove D4 = new ChessMove(new ChessPosition(2, 4), new ChessPosition(4, 4), null);
+    private static final ChessMove E5 = new ChessMove(new ChessPosition(7, 5), new ChessPosition(5, 5), null);
+    private static final ChessMove C5 = new ChessMove(new ChessPosition(7, 3), new ChessPosition(5, 3), null);
+
+    @TempDir
+    Path directory;
+
+    private OpeningBook writeBook() throws IOException, InvalidMoveException {
+        OpeningBookWriter writer = new OpeningBookWriter();
+        ChessGame start = new ChessGame();
+        writer.addLine(start, List.of(E4, E5), 3);
+        writer.addLine(start, List.of(E4, C5), 2);
+        writer.addLine(start, List.of(D4), 1);
+        Assertions.assertEquals(4, writer.size());
+        Path file = directory.resolve("book.bin");
+        writer.write(file);
+        return OpeningBook.open(file);
+    }
+
+    @Test
+    @DisplayName("Lookups find each position's moves with their summed weights")
+    public void lookup() throws IOException, InvalidMoveException {
+        OpeningBook book = writeBook();
+        Assertions.assertEquals(4, book.size());
+
+        ChessGame game = new ChessGame();
+        List<BookMove> moves = book.lookup(game);
+        Assertions.assertEquals(2, moves.size());
+        Assertions.assertTrue(moves.contains(new BookMove(Move.fromChessMove(E4), 5)));
+        Assertions.assertTrue(moves.contains(new BookMove(Move.fromChessMove(D4), 1)));
+        Assertions.assertEquals(Move.fromChessMove(E4), book.bestMove(game));
+
+        game.makeMove(E4);
+        Assertions.assertEquals(Move.fromChessMove(E5), book.bestMove(game));
+        game.makeMove(E5);
+        Assertions.assertTrue(book.lookup(game).isEmpty());
+        Assertions.assertEquals(Move.NONE, book.pickMove(game, new Random(1)));
+    }
+
+    @Test
+    @DisplayName("Random picks follow the weights")
+    public void weightedPick() throws IOException, InvalidMoveException {
+        OpeningBook book = writeBook();
+        ChessGame game = new ChessGame();
+        Random random = new Random(42);
+        int e4 = 0;
+        for (int i = 0; i < 6000; i++) {
+            if (book.pickMove(game, random) == Move.fromChessMove(E4)) {
+                e4++;
+            }
+        }
+        Assertions.assertEquals(5000, e4, 200);
+    }
+
+    @Test
+    @DisplayName("Moves that are illegal in the position are left out")
+    public void illegalMovesDropped() throws IOException {
+        OpeningBookWriter writer = new OpeningBookWriter();
+        ChessGame game = new ChessGame();
+        writer.add(game, E5, 10);
+        writer.add(game, D4, 1);
+        Path file = directory.resolve("book.bin");
+        writer.write(file);
+
+        OpeningBook book = OpeningBook.open(file);
+        Assertions.assertEquals(2, book.lookup(game.getZobristKey()).size());
+        Assertions.assertEquals(List.of(new BookMove(Move.fromChessMove(D4), 1)), book.lookup(game));
+    }
+
+    @Test
+    @DisplayName("Files that are not books are rejected")
+    public void badFiles() throws IOException {
+        Path file = directory.resolve("junk.bin");
+        Files.write(file, new byte[20]);
+        Assertions.assertThrows(IOException.class, () -> OpeningBook.open(file));
+        Files.write(file, new byte[3]);
+        Assertions.assertThrows(IOException.class, () -> OpeningBook.open(file));
+    }
+
+    @Test
+    @DisplayName("Weights past the file's limit are capped, whether added at once or summed")
+    public void weightCap() throws IOException {
+        OpeningBookWriter writer = new OpeningBookWriter();
+        ChessGame start = new ChessGame();
+        writer.add(start, E4, 0x10000);
+        writer.add(start, D4, 0xFFF0);
+        writer.add(start, D4, Integer.MAX_VALUE);
+        Path file = directory.resolve("capped.bin");
+        writer.write(file);
+
+        List<BookMove> moves = OpeningBook.open(file).lookup(start);
+        Assertions.assertTrue(moves.contains(new BookMove(Move.fromChessMove(E4), OpeningBookWriter.MAX_WEIGHT)));
+        Assertions.assertTrue(moves.contains(new BookMove(Move.fromChessMove(D4), OpeningBookWriter.MAX_WEIGHT)));
+    }
+}
@@ -0,0 +1,90 @@
+package chess.replay;
+
+import chess.ChessGame;
+import chess.Move;
+import chess.MoveList;
+import chess.MoveUndo;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+public class ReplayValidatorTests {
+
+    @Test
+    @DisplayName("A legal game replays to its ending")
+    public void legalGame() {
+        ReplayResult result = ReplayValidator.replay(GameRecord.fromStart("fools-mate",
+                List.of("f2f3", "e7e5", "g2g4", "d8h4")));
+        Assertions.assertTrue(result.isValid());
+        Assertions.assertEquals(4, result.pliesPlayed());
+        Assertions.assertEquals(ReplayResult.Ending.CHECKMATE, result.ending());
+    }
+
+    @Test
+    @DisplayName("The first illegal move stops the replay")
+    public void illegalMove() {
+        ReplayResult result = ReplayValidator.replay(GameRecord.fromStart("bad",
+                List.of("e2e4", "e7e5", "e1e3", "d2d4")));
+        Assertions.assertFalse(result.isValid());
+        Assertions.assertEquals(2, result.pliesPlayed());
+        Assertions.assertEquals("e1e3", result.illegalMove());
+        Assertions.assertEquals("rnbqkbnr/pppp1ppp/8/4p3/4P3/8/PPPP1PPP/RNBQKBNR w KQkq - 0 2", result.finalFen());
+
+        Assertions.assertEquals("e9e4",
+                ReplayValidator.replay(GameRecord.fromStart("notation", List.of("e9e4"))).illegalMove());
+        ReplayResult badStart = ReplayValidator.replay(new GameRecord("start", "not a fen", List.of()));
+        Assertions.assertFalse(badStart.isValid());
+        Assertions.assertNull(badStart.finalFen());
+    }
+
+    @Test
+    @DisplayName("Batches of games come back in order with totals")
+    public void bulk() {
+        List<GameRecord> games = IntStream.range(0, 300).mapToObj(ReplayValidatorTests::randomGame).toList();
+        List<ReplayResult> results = new ArrayList<>();
+        ReplaySummary summary;
+        try (ReplayValidator validator = new ReplayValidator(4, 64)) {
+            summary = validator.validate(games.stream(), results::add);
+        }
+
+        Assertions.assertEquals(300, summary.games());
+        Assertions.assertEquals(100, summary.invalid());
+        long plies = 0;
+        for (int i = 0; i < games.size(); i++) {
+            ReplayResult result = results.get(i);
+            Assertions.assertEquals(games.get(i).gameId(), result.gameId());
+            Assertions.assertEquals(i % 3 != 0, result.isValid(), result.gameId());
+            plies += result.pliesPlayed();
+        }
+        Assertions.assertEquals(plies, summary.plies());
+    }
+
+    /**
+     * Plays random legal moves; every third game has an illegal move added at the end
+     */
+    private static GameRecord randomGame(int seed) {
+        Random random = new Random(seed);
+        ChessGame game = new ChessGame();
+        MoveList legal = new MoveList();
+        MoveUndo undo = new MoveUndo();
+        List<String> moves = new ArrayList<>();
+        for (int ply = 0; ply < 60; ply++) {
+            game.legalMoves(legal);
+            if (legal.isEmpty()) {
+                break;
+            }
+            int move = legal.get(random.nextInt(legal.size()));
+            moves.add(Move.toString(move));
+            game.makeMove(move, undo);
+        }
+        if (seed % 3 == 0) {
+            moves.add("a1a1");
+        }
+        return GameRecord.fromStart("game-" + seed, moves);
+    }
+}
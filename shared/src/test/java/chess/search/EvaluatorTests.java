@@ -0,0 +1,131 @@
+package chess.search;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.MoveList;
+import chess.MoveUndo;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+public class EvaluatorTests {
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+    @Test
+    @DisplayName("Incremental totals match a board built from scratch through make and unmake")
+    public void incrementalMatchesFresh() {
+        Random random = new Random(14);
+        ChessGame game = ChessGame.fromFen(KIWIPETE);
+        MoveList moves = new MoveList();
+        MoveUndo[] undos = new MoveUndo[60];
+        int played = 0;
+        for (; played < undos.length; played++) {
+            game.legalMoves(moves);
+            if (moves.isEmpty()) {
+                break;
+            }
+            undos[played] = new MoveUndo();
+            game.makeMove(moves.get(random.nextInt(moves.size())), undos[played]);
+            assertMatchesFresh(game.getBoard());
+        }
+        while (played > 0) {
+            game.unmakeMove(undos[--played]);
+            assertMatchesFresh(game.getBoard());
+        }
+        Assertions.assertEquals(KIWIPETE, game.toFen());
+    }
+
+    @Test
+    @DisplayName("Mirrored positions score the same for the side to move")
+    public void symmetry() {
+        PieceSquareEvaluator evaluator = new PieceSquareEvaluator();
+        Assertions.assertEquals(0, evaluator.evaluate(new ChessGame()));
+
+        ChessGame game = ChessGame.fromFen(KIWIPETE);
+        ChessGame mirrored = ChessGame.fromFen(mirror(KIWIPETE));
+        Assertions.assertEquals(evaluator.evaluate(game), evaluator.evaluate(mirrored));
+        Assertions.assertEquals(evaluator.breakdown(game).total(), -evaluator.breakdown(mirrored).total());
+    }
+
+    @Test
+    @DisplayName("Breakdown terms add up to the evaluation")
+    public void breakdown() {
+        PieceSquareEvaluator evaluator = new PieceSquareEvaluator();
+        ChessGame game = ChessGame.fromFen("4k3/8/8/8/8/P7/P7/4K2Q w - - 0 1");
+        PieceSquareEvaluator.Breakdown terms = evaluator.breakdown(game);
+
+        Assertions.assertEquals(900 + 200, terms.material());
+        Assertions.assertEquals(4, terms.phase());
+        Assertions.assertEquals(PawnStructure.DOUBLED + 2 * PawnStructure.ISOLATED
+                + PawnStructure.PASSED[1] + PawnStructure.PASSED[2], terms.pawnStructure());
+        Assertions.assertEquals(terms.total(), evaluator.evaluate(game));
+    }
+
+    @Test
+    @DisplayName("Kings head for the centre once the pieces come off")
+    public void endgameKing() {
+        ChessBoard endgame = ChessGame.fromFen("4k3/8/8/8/4K3/8/8/8 w - - 0 1").getBoard();
+        ChessBoard cornered = ChessGame.fromFen("4k3/8/8/8/8/8/8/K7 w - - 0 1").getBoard();
+        Assertions.assertTrue(endgame.getPlacementScore() > cornered.getPlacementScore());
+    }
+
+    @Test
+    @DisplayName("The pawn hash serves repeated pawn structures and changes no scores")
+    public void pawnHash() {
+        PieceSquareEvaluator cached = new PieceSquareEvaluator();
+        PieceSquareEvaluator uncached = new PieceSquareEvaluator(new PawnHashTable(1));
+        Random random = new Random(15);
+        ChessGame game = ChessGame.fromFen(KIWIPETE);
+        MoveList moves = new MoveList();
+        MoveUndo undo = new MoveUndo();
+        for (int i = 0; i < 200; i++) {
+            game.legalMoves(moves);
+            for (int j = 0; j < moves.size(); j++) {
+                game.makeMove(moves.get(j), undo);
+                Assertions.assertEquals(uncached.evaluate(game), cached.evaluate(game));
+                game.unmakeMove(undo);
+            }
+            if (moves.isEmpty()) {
+                break;
+            }
+            game.makeMove(moves.get(random.nextInt(moves.size())), new MoveUndo());
+        }
+
+        PawnHashTable table = cached.getPawnTable();
+        Assertions.assertTrue(table.hitRate() > 0.5, table.toString());
+        Assertions.assertEquals(PawnHashTable.DEFAULT_ENTRIES, table.capacity());
+    }
+
+    private static void assertMatchesFresh(ChessBoard board) {
+        ChessBoard fresh = ChessBoard.fromFen(board.toFen());
+        Assertions.assertEquals(fresh.getMaterialBalance(), board.getMaterialBalance());
+        Assertions.assertEquals(fresh.getPlacementScore(), board.getPlacementScore());
+        Assertions.assertEquals(fresh.getGamePhase(), board.getGamePhase());
+        Assertions.assertEquals(fresh.getPawnKey(), board.getPawnKey());
+    }
+
+    /**
+     * @return the same position with the colors swapped and the board flipped top to bottom
+     */
+    private static String mirror(String fen) {
+        String[] fields = fen.split(" ");
+        String[] ranks = fields[0].split("/");
+        StringBuilder placement = new StringBuilder();
+        for (int i = ranks.length - 1; i >= 0; i--) {
+            placement.append(swapCase(ranks[i])).append(i > 0 ? "/" : "");
+        }
+        String castling = fields[2].equals("-") ? "-" : swapCase(fields[2]);
+        String side = fields[1].equals("w") ? "b" : "w";
+        return placement + " " + side + " " + castling + " - " + fields[4] + " " + fields[5];
+    }
+
+    private static String swapCase(String text) {
+        StringBuilder swapped = new StringBuilder();
+        for (char c : text.toCharArray()) {
+            swapped.append(Character.isUpperCase(c) ? Character.toLowerCase(c) : Character.toUpperCase(c));
+        }
+        return swapped.toString();
+    }
+}
@@ -0,0 +1,84 @@
+package chess.search;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class ParallelSearchTests {
+
+    @Test
+    @DisplayName("Several threads find the same mate as one")
+    public void mateInOne() {
+        ChessGame game = ChessGame.fromFen("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+        try (ParallelSearch search = new ParallelSearch(4)) {
+            SearchResult result = search.search(game, SearchLimits.depth(4));
+
+            Assertions.assertEquals(new ChessMove(new ChessPosition(1, 1), new ChessPosition(8, 1), null),
+                    result.getBestMove());
+            Assertions.assertTrue(result.isMate());
+        }
+    }
+
+    @Test
+    @DisplayName("Reports the main thread's depth with a legal move and stops its helpers")
+    public void fixedDepth() {
+        ChessGame game = ChessGame.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        String before = game.toFen();
+        try (ParallelSearch search = new ParallelSearch(3)) {
+            for (int run = 0; run < 3; run++) {
+                SearchResult result = search.search(game, SearchLimits.depth(4));
+
+                Assertions.assertEquals(4, result.depth());
+                Assertions.assertTrue(game.validMoves(result.getBestMove().getStartPosition())
+                        .contains(result.getBestMove()));
+            }
+        }
+        Assertions.assertEquals(before, game.toFen());
+    }
+
+    @Test
+    @DisplayName("A time limit ends every thread")
+    public void timeLimit() {
+        try (ParallelSearch search = new ParallelSearch(2)) {
+            long start = System.nanoTime();
+            SearchResult result = search.search(new ChessGame(), SearchLimits.time(200));
+
+            Assertions.assertTrue(System.nanoTime() - start < 2_000_000_000L);
+            Assertions.assertNotNull(result.getBestMove());
+        }
+    }
+
+    @Test
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    @DisplayName("A failing main thread still stops its helpers")
+    public void mainThreadFailure() {
+        AtomicBoolean fail = new AtomicBoolean(true);
+        AtomicBoolean first = new AtomicBoolean(true);
+        try (ParallelSearch search = new ParallelSearch(2, () -> {
+            Evaluator evaluator = new PieceSquareEvaluator();
+            if (!first.getAndSet(false)) {
+                return evaluator;
+            }
+            return game -> {
+                if (fail.get()) {
+                    throw new IllegalStateException("Evaluator broke");
+                }
+                return evaluator.evaluate(game);
+            };
+        }, new TranspositionTable(1))) {
+            Assertions.assertThrows(IllegalStateException.class,
+                    () -> search.search(new ChessGame(), SearchLimits.time(60_000)));
+
+            fail.set(false);
+            SearchResult result = search.search(new ChessGame(), SearchLimits.depth(3));
+            Assertions.assertNotNull(result.getBestMove());
+        }
+    }
+}
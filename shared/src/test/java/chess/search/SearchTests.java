@@ -0,0 +1,71 @@
+package chess.search;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.Move;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class SearchTests {
+
+    @Test
+    @DisplayName("Finds a back rank mate in one")
+    public void mateInOne() {
+        ChessGame game = ChessGame.fromFen("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+        SearchResult result = new Search().search(game, SearchLimits.depth(4));
+
+        Assertions.assertEquals(move(1, 1, 8, 1), result.getBestMove());
+        Assertions.assertTrue(result.isMate());
+        Assertions.assertEquals(Search.MATE - 1, result.score());
+    }
+
+    @Test
+    @DisplayName("Takes a hanging queen and leaves the game untouched")
+    public void winsMaterial() {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/3q4/8/8/3R4/4K3 w - - 0 1");
+        String before = game.toFen();
+        SearchResult result = new Search().search(game, SearchLimits.depth(3));
+
+        Assertions.assertEquals(move(2, 4, 5, 4), result.getBestMove());
+        Assertions.assertTrue(result.score() > 300);
+        Assertions.assertEquals(before, game.toFen());
+    }
+
+    @Test
+    @DisplayName("Quiescence sees that a defended pawn is poisoned")
+    public void avoidsLosingCapture() {
+        ChessGame game = ChessGame.fromFen("4k3/8/2p5/3p4/8/8/3Q4/4K3 w - - 0 1");
+        SearchResult result = new Search().search(game, SearchLimits.depth(1));
+
+        Assertions.assertNotEquals(move(2, 4, 5, 4), result.getBestMove());
+    }
+
+    @Test
+    @DisplayName("Stops at the node limit after finishing the first ply")
+    public void nodeLimit() {
+        SearchResult result = new Search().search(new ChessGame(), SearchLimits.nodes(20_000));
+
+        Assertions.assertTrue(result.depth() >= 1);
+        Assertions.assertTrue(result.nodes() <= 20_001, "visited " + result.nodes());
+        Assertions.assertTrue(new ChessGame().validMoves(result.getBestMove().getStartPosition())
+                .contains(result.getBestMove()));
+        Assertions.assertTrue(result.nodesPerSecond() > 0);
+    }
+
+    @Test
+    @DisplayName("Returns no move when there is none")
+    public void stalemate() {
+        ChessGame game = ChessGame.fromFen("7k/5Q2/6K1/8/8/8/8/8 b - - 0 1");
+        SearchResult result = new Search().search(game, SearchLimits.depth(3));
+
+        Assertions.assertEquals(Move.NONE, result.bestMove());
+        Assertions.assertNull(result.getBestMove());
+        Assertions.assertEquals(0, result.score());
+    }
+
+    private static ChessMove move(int fromRow, int fromCol, int toRow, int toCol) {
+        return new ChessMove(new ChessPosition(fromRow, fromCol), new ChessPosition(toRow, toCol), null);
+    }
+}
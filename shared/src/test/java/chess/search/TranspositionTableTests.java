@@ -0,0 +1,70 @@
+package chess.search;
+
+import chess.ChessGame;
+import chess.Move;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class TranspositionTableTests {
+
+    @Test
+    @DisplayName("Stored entries read back and count as hits")
+    public void storeAndProbe() {
+        TranspositionTable table = new TranspositionTable(1);
+        int move = Move.of(12, 28);
+        table.store(0x1234_5678_9ABCL, move, -57, 6, TranspositionTable.LOWER_BOUND, 0);
+
+        long entry = table.probe(0x1234_5678_9ABCL);
+        Assertions.assertEquals(move, TranspositionTable.move(entry));
+        Assertions.assertEquals(-57, TranspositionTable.score(entry, 0));
+        Assertions.assertEquals(6, TranspositionTable.depth(entry));
+        Assertions.assertEquals(TranspositionTable.LOWER_BOUND, TranspositionTable.bound(entry));
+        Assertions.assertEquals(TranspositionTable.MISS, table.probe(0x9999L));
+        Assertions.assertEquals(1, table.getHits());
+        Assertions.assertEquals(1, table.getMisses());
+    }
+
+    @Test
+    @DisplayName("A different key in the same slot is a collision, and deeper entries survive")
+    public void collisionAndReplacement() {
+        TranspositionTable table = new TranspositionTable(1);
+        long first = 5;
+        long second = first + table.capacity();
+        table.store(first, Move.of(1, 2), 10, 8, TranspositionTable.EXACT, 0);
+
+        Assertions.assertEquals(TranspositionTable.MISS, table.probe(second));
+        Assertions.assertEquals(1, table.getCollisions());
+
+        table.store(second, Move.of(3, 4), 20, 2, TranspositionTable.EXACT, 0);
+        Assertions.assertNotEquals(TranspositionTable.MISS, table.probe(first));
+
+        table.newSearch();
+        table.store(second, Move.of(3, 4), 20, 2, TranspositionTable.EXACT, 0);
+        Assertions.assertEquals(20, TranspositionTable.score(table.probe(second), 0));
+    }
+
+    @Test
+    @DisplayName("Mate scores are stored relative to the entry's own ply")
+    public void mateDistance() {
+        TranspositionTable table = new TranspositionTable(1);
+        table.store(42, Move.NONE, Search.MATE - 7, 4, TranspositionTable.EXACT, 3);
+
+        Assertions.assertEquals(Search.MATE - 5, TranspositionTable.score(table.probe(42), 1));
+    }
+
+    @Test
+    @DisplayName("A shared table makes a repeated search cheaper")
+    public void reuse() {
+        TranspositionTable table = new TranspositionTable(4);
+        Search search = new Search(new MaterialEvaluator(), table);
+        ChessGame game = new ChessGame();
+
+        SearchResult first = search.search(game, SearchLimits.depth(5));
+        SearchResult second = search.search(game, SearchLimits.depth(5));
+
+        Assertions.assertTrue(second.nodes() < first.nodes(), first.nodes() + " then " + second.nodes());
+        Assertions.assertEquals(first.score(), second.score());
+        Assertions.assertTrue(table.hitRate() > 0);
+    }
+}
@@ -0,0 +1,84 @@
+package chess.tablebase;
+
+import chess.ChessGame;
+import chess.Move;
+import chess.MoveUndo;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class TablebaseTests {
+    @TempDir
+    static Path directory;
+
+    private static Tablebase tablebase;
+
+    @BeforeAll
+    public static void generate() throws IOException {
+        tablebase = TablebaseGenerator.generateAll(directory);
+    }
+
+    private static TablebaseResult probe(String fen) {
+        return tablebase.probe(ChessGame.fromFen(fen));
+    }
+
+    @Test
+    @DisplayName("Every ending gets a file and the files reopen")
+    public void files() throws IOException {
+        for (Tablebase.Ending ending : Tablebase.Ending.values()) {
+            Assertions.assertTrue(Files.exists(directory.resolve(ending.fileName())), ending.name());
+            Assertions.assertTrue(Tablebase.open(directory).covers(ending), ending.name());
+        }
+    }
+
+    @Test
+    @DisplayName("Known results come out right")
+    public void knownResults() {
+        Assertions.assertEquals(new TablebaseResult(TablebaseResult.Outcome.LOSS, 0),
+                probe("7k/6Q1/6K1/8/8/8/8/8 b - - 0 1"));
+        Assertions.assertEquals(new TablebaseResult(TablebaseResult.Outcome.WIN, 1),
+                probe("7k/8/6K1/8/8/8/8/R7 w - - 0 1"));
+        Assertions.assertEquals(TablebaseResult.DRAW, probe("7k/5Q2/6K1/8/8/8/8/8 b - - 0 1"));
+        // King in front of its pawn wins, but a rook pawn cannot drive the defender from the corner
+        Assertions.assertEquals(TablebaseResult.Outcome.WIN, probe("4k3/8/4K3/4P3/8/8/8/8 w - - 0 1").outcome());
+        Assertions.assertEquals(TablebaseResult.Outcome.LOSS, probe("4k3/8/4K3/4P3/8/8/8/8 b - - 0 1").outcome());
+        Assertions.assertEquals(TablebaseResult.DRAW, probe("k7/8/1K6/P7/8/8/8/8 w - - 0 1"));
+    }
+
+    @Test
+    @DisplayName("Black with the extra piece reads the mirrored table")
+    public void mirrored() {
+        Assertions.assertEquals(probe("4k3/8/4K3/4P3/8/8/8/8 w - - 0 1"),
+                probe("8/8/8/8/4p3/4k3/8/4K3 b - - 0 1"));
+        Assertions.assertEquals(probe("8/8/8/8/8/2k5/8/K1Q5 b - - 0 1"),
+                probe("k1q5/8/2K5/8/8/8/8/8 w - - 0 1"));
+    }
+
+    @Test
+    @DisplayName("Positions outside the tables are not covered")
+    public void notCovered() {
+        Assertions.assertNull(tablebase.probe(new ChessGame()));
+        Assertions.assertNull(probe("4k3/8/8/8/8/8/8/4K2R w K - 0 1"));
+        Assertions.assertNull(probe("4k3/8/8/8/8/8/8/3BK3 w - - 0 1"));
+    }
+
+    @Test
+    @DisplayName("Following the best moves mates in the promised number of plies")
+    public void bestMovesMate() {
+        ChessGame game = ChessGame.fromFen("8/8/8/8/8/2k5/8/K1Q5 b - - 0 1");
+        int plies = tablebase.probe(game).plies();
+        MoveUndo undo = new MoveUndo();
+        for (int i = 0; i < plies; i++) {
+            int move = tablebase.bestMove(game);
+            Assertions.assertNotEquals(Move.NONE, move);
+            game.makeMove(move, undo);
+        }
+        Assertions.assertTrue(game.isInCheckmate(game.getTeamTurn()));
+    }
+}